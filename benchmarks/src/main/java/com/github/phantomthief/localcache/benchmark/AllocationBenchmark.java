@@ -0,0 +1,59 @@
+package com.github.phantomthief.localcache.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.phantomthief.localcache.impl.ZkNotifyReloadCache;
+
+/**
+ * 创建并初始化一个 cache 实例时分配的内存
+ * 需要配合 {@code -prof gc} 运行，{@code gc.alloc.rate.norm} 即每个 cache 实例分配的字节数（cache 值本身不计入）
+ * 统计的是分配量而不是常驻内存：构建过程中的临时对象也会计入，创建之后仍然存活的部分只是其中一部分
+ *
+ * <pre>{@code
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="AllocationBenchmark -prof gc"
+ * }</pre>
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AllocationBenchmark {
+
+    private static final Object VALUE = new Object();
+
+    @Benchmark
+    public ZkNotifyReloadCache<Object> buildAndGet() {
+        ZkNotifyReloadCache<Object> cache = ZkNotifyReloadCache.newBuilder()
+                .withCacheFactory(() -> VALUE)
+                .build();
+        cache.get();
+        return cache;
+    }
+
+    @Benchmark
+    public ZkNotifyReloadCache<Object> buildAndGetWithAutoReload() {
+        ZkNotifyReloadCache<Object> cache = ZkNotifyReloadCache.newBuilder()
+                .withCacheFactory(() -> VALUE)
+                .enableAutoReload(1, TimeUnit.HOURS)
+                .build();
+        cache.get();
+        // 不 close 的话定时任务会一直留在共享的调度线程池里，直到 cache 被 GC
+        cache.close();
+        return cache;
+    }
+}
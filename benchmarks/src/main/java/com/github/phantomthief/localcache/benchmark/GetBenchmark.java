@@ -0,0 +1,79 @@
+package com.github.phantomthief.localcache.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.phantomthief.localcache.impl.ZkNotifyReloadCache;
+
+/**
+ * 多线程 {@link ZkNotifyReloadCache#get()} 的吞吐
+ * {@code readWhileReload} 组里一个线程不停 reloadLocal，用来观察构建和发布对读路径的影响
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GetBenchmark {
+
+    private final AtomicLong source = new AtomicLong();
+    private ZkNotifyReloadCache<Long> cache;
+
+    @Setup
+    public void setup() {
+        cache = ZkNotifyReloadCache.<Long> newBuilder()
+                .withCacheFactory(source::incrementAndGet)
+                .build();
+        cache.get();
+    }
+
+    @TearDown
+    public void tearDown() {
+        cache.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Long get1Thread() {
+        return cache.get();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Long get8Threads() {
+        return cache.get();
+    }
+
+    @Benchmark
+    @Group("readWhileReload")
+    @GroupThreads(7)
+    public Long read() {
+        return cache.get();
+    }
+
+    @Benchmark
+    @Group("readWhileReload")
+    @GroupThreads(1)
+    public void reload() {
+        cache.reloadLocal();
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.phantomthief.localcache.benchmark;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.test.TestingServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.phantomthief.localcache.impl.ZkNotifyReloadCache;
+import com.github.phantomthief.zookeeper.broadcast.ZkBroadcaster;
+
+/**
+ * 从 {@link ZkBroadcaster#broadcast} 到所有订阅同一个 path 的 cache 都能读到新值的延迟
+ * 使用 curator-test 内嵌的 {@link TestingServer}，结果包含一次 zk 写入和 watch 回调，不包含跨机器的网络开销
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotifyFanoutBenchmark {
+
+    private static final String PATH = "/benchmark/fanout";
+
+    /**
+     * 订阅同一个 path 的 cache 数量
+     */
+    @Param({"1", "10", "100"})
+    public int caches;
+
+    private final AtomicLong source = new AtomicLong();
+    private final List<ZkNotifyReloadCache<Long>> cacheList = new ArrayList<>();
+    private TestingServer testingServer;
+    private CuratorFramework curatorFramework;
+    private ZkBroadcaster broadcaster;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        testingServer = new TestingServer(true);
+        curatorFramework = CuratorFrameworkFactory.newClient(testingServer.getConnectString(),
+                new ExponentialBackoffRetry(1000, 3));
+        curatorFramework.start();
+        broadcaster = new ZkBroadcaster(() -> curatorFramework);
+        for (int i = 0; i < caches; i++) {
+            ZkNotifyReloadCache<Long> cache = ZkNotifyReloadCache.<Long> newBuilder()
+                    .withCacheFactory(source::get)
+                    .withNotifyZkPath(PATH)
+                    .withBroadcaster(broadcaster)
+                    .build();
+            cache.get();
+            cacheList.add(cache);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        cacheList.forEach(ZkNotifyReloadCache::close);
+        cacheList.clear();
+        broadcaster.close();
+        curatorFramework.close();
+        testingServer.close();
+    }
+
+    @Benchmark
+    public long notifyToVisible() {
+        long expect = source.incrementAndGet();
+        broadcaster.broadcast(PATH, String.valueOf(System.currentTimeMillis()));
+        for (ZkNotifyReloadCache<Long> cache : cacheList) {
+            while (cache.get() < expect) {
+                LockSupport.parkNanos(10_000L);
+            }
+        }
+        return expect;
+    }
+}
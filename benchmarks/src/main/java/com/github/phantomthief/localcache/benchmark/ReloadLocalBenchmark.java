@@ -0,0 +1,68 @@
+package com.github.phantomthief.localcache.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.phantomthief.localcache.impl.ZkNotifyReloadCache;
+
+/**
+ * 多个线程同时 {@link ZkNotifyReloadCache#reloadLocal()} 时单次调用的耗时
+ * 并发的 reload 会被合并，factory 实际调用次数应该远小于调用次数
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ReloadLocalBenchmark {
+
+    /**
+     * 单次 factory 调用消耗的 CPU，单位见 {@link Blackhole#consumeCPU(long)}
+     */
+    @Param({"0", "10000"})
+    public long factoryCost;
+
+    private final AtomicLong factoryCalls = new AtomicLong();
+    private ZkNotifyReloadCache<Long> cache;
+
+    @Setup
+    public void setup() {
+        cache = ZkNotifyReloadCache.<Long> newBuilder()
+                .withCacheFactory(() -> {
+                    Blackhole.consumeCPU(factoryCost);
+                    return factoryCalls.incrementAndGet();
+                })
+                .build();
+        cache.get();
+    }
+
+    @TearDown
+    public void tearDown() {
+        cache.close();
+    }
+
+    @Benchmark
+    public void reloadLocal() {
+        cache.reloadLocal();
+    }
+}
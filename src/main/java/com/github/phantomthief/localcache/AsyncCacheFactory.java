@@ -0,0 +1,30 @@
+package com.github.phantomthief.localcache;
+
+import java.util.concurrent.CompletionStage;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 异步构建缓存，适合基于非阻塞 IO 客户端的数据源，构建期间不占用调度线程
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+public interface AsyncCacheFactory<T> {
+
+    /**
+     * 注意
+     * 1. 返回的 stage 不要以 {@code null} 完成
+     * 2. 当构建失败时（本调用抛异常、stage 以异常完成、或者 stage 超时时），会保持上一次构建的结果
+     * 3. 当第一次构建异常时，会在caller thread上抛出异常；第一次构建时 caller thread 会等待 stage 完成
+     * 4. 同一个缓存不会并发调用本方法，上一次返回的 stage 完成或者超时之前不会开始下一次构建；
+     * 超时（见 {@code ZkNotifyReloadCache.Builder#withAsyncFactoryTimeout}）的 stage 被放弃，之后才完成的结果直接丢弃
+     * （回调 oldCleanup），所以超时的 stage 还在运行时本方法可能被再次调用，同一时刻可能有多个 stage 在访问数据源
+     * 5. 发布新值和回调 oldCleanup 发生在完成 stage 的线程上
+     *
+     * @param prev 上一次缓存的值，如果第一次构建为 {@code null}
+     */
+    @Nonnull
+    CompletionStage<T> get(@Nullable T prev);
+}
@@ -13,6 +13,7 @@ public interface CacheFactoryEx<T> {
      * 1. 本方法不要返回 {@code null}
      * 2. 当构建失败时（本调用抛异常时），会保持上一次构建的结果
      * 3. 当第一次构建异常时，会在caller thread上抛出异常
+     * 4. 同一个缓存不会并发调用本方法，构建期间收到的 reload 会合并成构建结束后的一次调用
      *
      * @param prev 上一次缓存的值，如果第一次构建为 {@code null}
      */
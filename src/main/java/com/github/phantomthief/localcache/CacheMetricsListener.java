@@ -0,0 +1,49 @@
+package com.github.phantomthief.localcache;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 接收 cache 从收到通知到新值可见的各阶段耗时，用于对接监控系统
+ *
+ * 回调在通知线程或者构建线程上同步执行，实现必须足够轻量且线程安全；回调抛出的异常会被记录并忽略
+ * 所有方法都有空的默认实现，按需覆盖即可，自带的实现见 {@link HistogramMetricsListener}
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+public interface CacheMetricsListener {
+
+    /**
+     * 收到一次（去重之后的）reload 通知
+     *
+     * @param broadcastToReceiveMillis 从发起方写入通知到本机收到的耗时，依赖两台机器的时钟同步，可能为负数
+     */
+    default void onNotifyReceived(@Nonnull String path, long broadcastToReceiveMillis) {
+    }
+
+    /**
+     * 收到通知之后，为了打散各节点同时重建，本次随机等待的时间
+     */
+    default void onNotifyDelayed(@Nonnull String path, long randomSleepMillis) {
+    }
+
+    /**
+     * 一次 factory 调用完成，包括第一次初始化
+     *
+     * @param factoryNanos factory 的耗时，异步 factory 为返回的 future 完成的耗时
+     * @param failure 构建失败的原因，成功时为 {@code null}
+     */
+    default void onRebuild(long factoryNanos, @Nullable Throwable failure) {
+    }
+
+    /**
+     * 构建结果发布成为新的缓存值
+     *
+     * @param version 发布的版本号
+     * @param broadcastToPublishMillis 由通知触发时，从最早一次还没有生效的通知写入到新值可见的耗时；
+     * 不是由通知触发的（第一次初始化、定时 reload、reloadLocal）为 {@code -1}
+     */
+    default void onPublished(long version, long broadcastToPublishMillis) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.phantomthief.localcache;
+
+import java.time.Duration;
+
+import javax.annotation.Nullable;
+
+/**
+ * {@link ReloadableCache} 构建情况的快照，由 {@link ReloadableCache#stats()} 返回
+ *
+ * 构建次数包括第一次初始化和之后的每一次 rebuild，和 factory 的调用次数一致
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+public final class CacheStats {
+
+    private final long rebuildCount;
+    private final long failureCount;
+    private final long lastSuccessTime;
+    private final long lastFailureTime;
+    private final Throwable lastFailureCause;
+    private final Duration totalFactoryDuration;
+    private final Duration maxFactoryDuration;
+    private final long currentVersion;
+    private final long snapshotTime;
+
+    public CacheStats(long rebuildCount, long failureCount, long lastSuccessTime, long lastFailureTime,
+            @Nullable Throwable lastFailureCause, Duration totalFactoryDuration, Duration maxFactoryDuration,
+            long currentVersion, long snapshotTime) {
+        this.rebuildCount = rebuildCount;
+        this.failureCount = failureCount;
+        this.lastSuccessTime = lastSuccessTime;
+        this.lastFailureTime = lastFailureTime;
+        this.lastFailureCause = lastFailureCause;
+        this.totalFactoryDuration = totalFactoryDuration;
+        this.maxFactoryDuration = maxFactoryDuration;
+        this.currentVersion = currentVersion;
+        this.snapshotTime = snapshotTime;
+    }
+
+    /**
+     * factory 调用次数，包括失败的
+     */
+    public long getRebuildCount() {
+        return rebuildCount;
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * 最近一次构建成功的时间戳（毫秒），从未成功时为 0
+     */
+    public long getLastSuccessTime() {
+        return lastSuccessTime;
+    }
+
+    /**
+     * 最近一次构建失败的时间戳（毫秒），从未失败时为 0
+     */
+    public long getLastFailureTime() {
+        return lastFailureTime;
+    }
+
+    @Nullable
+    public Throwable getLastFailureCause() {
+        return lastFailureCause;
+    }
+
+    public Duration getAverageFactoryDuration() {
+        return rebuildCount == 0 ? Duration.ZERO : totalFactoryDuration.dividedBy(rebuildCount);
+    }
+
+    public Duration getMaxFactoryDuration() {
+        return maxFactoryDuration;
+    }
+
+    /**
+     * 当前发布值的版本号，每次发布都会递增，还没有初始化时为 0
+     */
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+
+    /**
+     * 截至快照时，距离最近一次构建成功过去的时间，可以用于数据过期告警；从未成功时为 {@code null}
+     */
+    @Nullable
+    public Duration getStaleness() {
+        return lastSuccessTime == 0 ? null : Duration.ofMillis(Math.max(0L, snapshotTime - lastSuccessTime));
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{rebuildCount=" + rebuildCount + ", failureCount=" + failureCount
+                + ", lastSuccessTime=" + lastSuccessTime + ", lastFailureTime=" + lastFailureTime
+                + ", lastFailureCause=" + lastFailureCause + ", averageFactoryDuration="
+                + getAverageFactoryDuration() + ", maxFactoryDuration=" + maxFactoryDuration
+                + ", currentVersion=" + currentVersion + ", staleness=" + getStaleness() + '}';
+    }
+}
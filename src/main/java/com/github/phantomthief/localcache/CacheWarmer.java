@@ -0,0 +1,208 @@
+package com.github.phantomthief.localcache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * 启动时并行初始化一批 {@link ReloadableCache}
+ *
+ * 每个 cache 的 factory 调用和 zk 订阅都在受限的并发度下并行执行，整体受一个截止时间约束
+ * 截止时间之后还没有开始的 cache 不再初始化（第一次 {@link ReloadableCache#get()} 时照常初始化），已经开始的在后台继续完成
+ *
+ * <pre>{@code
+ * CacheWarmer.Result result = CacheWarmer.newBuilder()
+ *         .withConcurrency(16)
+ *         .withDeadline(Duration.ofSeconds(30))
+ *         .build()
+ *         .warmUp(caches);
+ * }</pre>
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+public class CacheWarmer {
+
+    private static final Logger logger = getLogger(CacheWarmer.class);
+
+    private final int concurrency;
+    private final Duration deadline;
+
+    private CacheWarmer(Builder builder) {
+        this.concurrency = builder.concurrency;
+        this.deadline = builder.deadline;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * 并行初始化所有 cache，最多等待到截止时间
+     * 单个 cache 初始化失败不会影响其他 cache，失败原因记录在返回结果里
+     * 同一个 cache 出现多次时只初始化一次，结果里也只出现一次
+     * 调用线程被打断时不再等待：没有完成的 cache 记为超时，恢复打断标记之后立即返回
+     */
+    @Nonnull
+    public Result warmUp(@Nonnull Collection<? extends ReloadableCache<?>> caches) {
+        checkNotNull(caches);
+        long start = System.nanoTime();
+        long deadlineNanos = start + deadline.toNanos();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("cacheWarmer-%d")
+                .build());
+        Map<ReloadableCache<?>, Future<Duration>> futures = new IdentityHashMap<>();
+        try {
+            for (ReloadableCache<?> cache : caches) {
+                if (futures.containsKey(cache)) {
+                    continue;
+                }
+                futures.put(cache, executor.submit(() -> {
+                    long cacheStart = System.nanoTime();
+                    cache.get();
+                    return Duration.ofNanos(System.nanoTime() - cacheStart);
+                }));
+            }
+            Map<ReloadableCache<?>, Duration> succeeded = new IdentityHashMap<>();
+            Map<ReloadableCache<?>, Throwable> failed = new IdentityHashMap<>();
+            List<ReloadableCache<?>> timeout = new ArrayList<>();
+            boolean interrupted = false;
+            for (Entry<ReloadableCache<?>, Future<Duration>> entry : futures.entrySet()) {
+                ReloadableCache<?> cache = entry.getKey();
+                Future<Duration> future = entry.getValue();
+                try {
+                    if (interrupted) {
+                        // 被打断之后不再等待，只收集已经完成的
+                        if (!future.isDone()) {
+                            throw new TimeoutException();
+                        }
+                        succeeded.put(cache, Uninterruptibles.getUninterruptibly(future));
+                    } else {
+                        succeeded.put(cache, future.get(deadlineNanos - System.nanoTime(), NANOSECONDS));
+                    }
+                } catch (ExecutionException e) {
+                    failed.put(cache, e.getCause() == null ? e : e.getCause());
+                } catch (InterruptedException | TimeoutException e) {
+                    interrupted |= e instanceof InterruptedException;
+                    // 还没开始的不再执行，执行中的不打断，由它在后台完成
+                    future.cancel(false);
+                    timeout.add(cache);
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            Result result = new Result(succeeded, failed, timeout, Duration.ofNanos(System.nanoTime() - start));
+            logger.info("warm up {} caches in {}ms, succeeded:{}, failed:{}, timeout:{}{}", futures.size(),
+                    result.getElapsed().toMillis(), succeeded.size(), failed.size(), timeout.size(),
+                    interrupted ? ", interrupted" : "");
+            return result;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public static final class Result {
+
+        private final Map<ReloadableCache<?>, Duration> succeeded;
+        private final Map<ReloadableCache<?>, Throwable> failed;
+        private final List<ReloadableCache<?>> timeout;
+        private final Duration elapsed;
+
+        private Result(Map<ReloadableCache<?>, Duration> succeeded, Map<ReloadableCache<?>, Throwable> failed,
+                List<ReloadableCache<?>> timeout, Duration elapsed) {
+            this.succeeded = unmodifiableMap(succeeded);
+            this.failed = unmodifiableMap(failed);
+            this.timeout = timeout;
+            this.elapsed = elapsed;
+        }
+
+        /**
+         * 初始化成功的 cache，以及各自的初始化耗时（factory 调用加 zk 订阅，不含排队等待的时间）
+         */
+        public Map<ReloadableCache<?>, Duration> getSucceeded() {
+            return succeeded;
+        }
+
+        /**
+         * 初始化失败的 cache，以及失败原因
+         */
+        public Map<ReloadableCache<?>, Throwable> getFailed() {
+            return failed;
+        }
+
+        /**
+         * 截止时间之前（或者调用线程被打断之前）没有完成的 cache
+         */
+        public List<ReloadableCache<?>> getTimeout() {
+            return timeout;
+        }
+
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        public boolean isAllSucceeded() {
+            return failed.isEmpty() && timeout.isEmpty();
+        }
+    }
+
+    public static final class Builder {
+
+        private int concurrency = Math.max(2, Runtime.getRuntime().availableProcessors());
+        private Duration deadline = Duration.ofMinutes(5);
+
+        /**
+         * 同时初始化的 cache 数量，默认为 CPU 核数
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder withConcurrency(int concurrency) {
+            checkArgument(concurrency > 0, "concurrency must be positive.");
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * 整体的截止时间，默认 5 分钟
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder withDeadline(@Nonnull Duration deadline) {
+            checkArgument(!checkNotNull(deadline).isNegative(), "deadline must not be negative.");
+            this.deadline = deadline;
+            return this;
+        }
+
+        @Nonnull
+        public CacheWarmer build() {
+            return new CacheWarmer(this);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.phantomthief.localcache;
+
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 增量构建缓存：除了上一次的值，还会拿到自上一次构建以来通过 {@link ReloadableCache#reload(String)} 通知的变更
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+public interface DeltaCacheFactory<T> {
+
+    /**
+     * 注意
+     * 1. 本方法不要返回 {@code null}，也不要修改 {@code prev}，需要时基于它构建一个新的值（旧值会被 oldCleanup 回收）
+     * 2. 当构建失败时（本调用抛异常时），会保持上一次构建的结果，下一次构建会是全量构建
+     * 3. 当第一次构建异常时，会在caller thread上抛出异常
+     * 4. 同一个缓存不会并发调用本方法，构建期间收到的变更会合并到构建结束后的一次调用
+     * 5. {@code changes} 为空时必须全量构建：第一次构建、定时 reload、{@link ReloadableCache#reloadLocal()}、
+     * 不带变更的 {@link ReloadableCache#reload()}、以及积压的变更超过上限时都会这样调用
+     * 6. 通知是尽力送达的：zk 的 watch 只保证看到最新的内容，短时间内连续的多次通知可能只收到最后一次，
+     * 所以同一个变更可能传入多次、也可能漏掉，处理变更需要是幂等的，并且建议配合 enableAutoReload 定期全量构建兜底
+     * 7. 通知的版本号每次写入加一时才能发现漏掉的通知，此时下一次构建会退化为全量构建：
+     * {@link com.github.phantomthief.zookeeper.broadcast.ZkBroadcaster}（通知节点的数据版本）和
+     * {@link com.github.phantomthief.zookeeper.broadcast.LocalBroadcaster} 支持；
+     * {@link com.github.phantomthief.zookeeper.broadcast.CompositeBroadcaster}、
+     * {@link com.github.phantomthief.zookeeper.broadcast.MulticastBroadcaster} 和
+     * {@link com.github.phantomthief.zookeeper.broadcast.FileWatchBroadcaster} 不提供版本号，漏掉的变更只能靠定期全量构建补上
+     *
+     * @param prev 上一次缓存的值，如果第一次构建为 {@code null}
+     * @param changes 按收到顺序排列的变更，为空表示全量构建
+     */
+    @Nonnull
+    T get(@Nullable T prev, @Nonnull List<String> changes) throws Throwable;
+}
@@ -0,0 +1,97 @@
+package com.github.phantomthief.localcache;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 不依赖任何监控库的默认 {@link CacheMetricsListener}，把各阶段耗时记录到 {@link LatencyHistogram} 里
+ * 可以被多个 cache 共享，由使用方定期读取并上报
+ *
+ * <pre>{@code
+ * HistogramMetricsListener metrics = new HistogramMetricsListener();
+ * ReloadableCache<List<String>> cache = ZkNotifyReloadCache.<List<String>> newBuilder()
+ *         ...
+ *         .withMetricsListener(metrics)
+ *         .build();
+ * long p99 = metrics.getBroadcastToPublish().getValueAtPercentile(99);
+ * }</pre>
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+public class HistogramMetricsListener implements CacheMetricsListener {
+
+    private final LatencyHistogram broadcastToReceive = new LatencyHistogram();
+    private final LatencyHistogram randomSleep = new LatencyHistogram();
+    private final LatencyHistogram factoryDuration = new LatencyHistogram();
+    private final LatencyHistogram broadcastToPublish = new LatencyHistogram();
+    private final LongAdder rebuildFailures = new LongAdder();
+
+    @Override
+    public void onNotifyReceived(@Nonnull String path, long broadcastToReceiveMillis) {
+        broadcastToReceive.record(broadcastToReceiveMillis);
+    }
+
+    @Override
+    public void onNotifyDelayed(@Nonnull String path, long randomSleepMillis) {
+        randomSleep.record(randomSleepMillis);
+    }
+
+    @Override
+    public void onRebuild(long factoryNanos, @Nullable Throwable failure) {
+        factoryDuration.record(NANOSECONDS.toMicros(factoryNanos));
+        if (failure != null) {
+            rebuildFailures.increment();
+        }
+    }
+
+    @Override
+    public void onPublished(long version, long broadcastToPublishMillis) {
+        if (broadcastToPublishMillis >= 0) {
+            broadcastToPublish.record(broadcastToPublishMillis);
+        }
+    }
+
+    /**
+     * 单位毫秒
+     */
+    public LatencyHistogram getBroadcastToReceive() {
+        return broadcastToReceive;
+    }
+
+    /**
+     * 单位毫秒
+     */
+    public LatencyHistogram getRandomSleep() {
+        return randomSleep;
+    }
+
+    /**
+     * 单位微秒
+     */
+    public LatencyHistogram getFactoryDuration() {
+        return factoryDuration;
+    }
+
+    /**
+     * 单位毫秒，即一次配置变更在本机生效的端到端耗时
+     */
+    public LatencyHistogram getBroadcastToPublish() {
+        return broadcastToPublish;
+    }
+
+    public long getRebuildFailures() {
+        return rebuildFailures.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramMetricsListener{broadcastToReceive(ms)=" + broadcastToReceive + ", randomSleep(ms)="
+                + randomSleep + ", factoryDuration(us)=" + factoryDuration + ", broadcastToPublish(ms)="
+                + broadcastToPublish + ", rebuildFailures=" + getRebuildFailures() + '}';
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.phantomthief.localcache;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 按 key 构建缓存值，用于 {@link ReloadableLoadingCache}
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+public interface KeyedCacheFactory<K, V> {
+
+    /**
+     * 注意
+     * 1. 本方法不要返回 {@code null}
+     * 2. 构建异常时会在调用 {@link ReloadableLoadingCache#get(Object)} 的线程上抛出，不会缓存失败的结果
+     * 3. 同一个 key 不会并发调用本方法，不同的 key 会并发调用
+     */
+    @Nonnull
+    V get(@Nonnull K key) throws Throwable;
+}
@@ -1,11 +1,16 @@
 package com.github.phantomthief.localcache;
 
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
 /**
  * @author w.vela
  */
-public interface ReloadableCache<T> extends Supplier<T> {
+public interface ReloadableCache<T> extends Supplier<T>, Closeable {
 
     /**
      * 当第一次构建失败时，本方法会上抛异常
@@ -13,6 +18,45 @@ public interface ReloadableCache<T> extends Supplier<T> {
     @Override
     T get();
 
+    /**
+     * 异步获取缓存，第一次调用时在后台初始化，不会阻塞调用线程
+     * 第一次构建失败时，返回的 future 以异常完成
+     *
+     * 默认实现在调用线程上同步执行 {@link #get()}，实现类应该覆盖本方法
+     */
+    @Nonnull
+    default CompletableFuture<T> getAsync() {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            future.complete(get());
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 直接返回当前缓存的值，既不会阻塞，也不会触发初始化
+     *
+     * 默认实现总是返回 {@code null}，实现类应该覆盖本方法
+     *
+     * @return 缓存还没有初始化完成时返回 {@code null}
+     */
+    @Nullable
+    default T getIfPresent() {
+        return null;
+    }
+
+    /**
+     * 返回缓存构建情况的快照：构建/失败次数、最近一次成功的时间、factory 耗时等
+     *
+     * @throws UnsupportedOperationException 实现类不支持统计时
+     */
+    @Nonnull
+    default CacheStats stats() {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * 通知全局缓存更新
      * 注意：如果本地缓存没有初始化，本方法并不会初始化本地缓存并重新加载
@@ -21,11 +65,51 @@ public interface ReloadableCache<T> extends Supplier<T> {
      */
     void reload();
 
+    /**
+     * 通知全局缓存更新，并带上本次的变更描述（比如变更的 key），使用 {@link DeltaCacheFactory} 的缓存会据此增量构建
+     * 变更描述会写入通知节点，应该尽量短小
+     *
+     * 默认实现忽略变更描述，调用 {@link #reload()}
+     */
+    default void reload(@Nonnull String change) {
+        reload();
+    }
+
+    /**
+     * 和 {@link #reload()} 相同，但是不等待通知写入完成
+     * 默认实现在调用线程上同步执行 {@link #reload()}，实现类应该覆盖本方法
+     *
+     * @return 通知写入完成时完成，写入失败时以异常完成；不代表各节点已经更新
+     */
+    @Nonnull
+    default CompletableFuture<Void> reloadAsync() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            reload();
+            future.complete(null);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
     /**
      * 更新本地缓存的本地副本
+     * 构建在调用线程上执行，但不会阻塞其他线程读取当前值
+     * 如果已经有构建在执行，本次调用会和其他触发合并成它之后的一次构建，并等待其完成
      * 注意：如果本地缓存没有初始化，本方法并不会初始化并刷新本地的缓存
      *
      * 如果需要初始化本地缓存，请先调用 {@link ReloadableCache#get()}
      */
     void reloadLocal();
+
+    /**
+     * 关闭缓存：取消 zk 订阅和定时 reload，释放当前值（会回调 oldCleanup）
+     * 关闭之后 {@link #get()} 会抛出 {@link IllegalStateException}，重复调用没有副作用
+     *
+     * 默认实现什么都不做
+     */
+    @Override
+    default void close() {
+    }
 }
@@ -0,0 +1,63 @@
+package com.github.phantomthief.localcache;
+
+import java.io.Closeable;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 按 key 缓存、可以按 key 通知所有节点更新的缓存
+ * 和 {@link ReloadableCache} 缓存一整个值不同，一个 key 变化时只需要重新加载这一个 key
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+public interface ReloadableLoadingCache<K, V> extends Closeable {
+
+    /**
+     * 没有缓存时在调用线程上构建，构建失败时本方法会上抛异常
+     */
+    @Nonnull
+    V get(@Nonnull K key);
+
+    /**
+     * 直接返回当前缓存的值，不会触发构建
+     *
+     * @return 没有缓存时返回 {@code null}
+     */
+    @Nullable
+    V getIfPresent(@Nonnull K key);
+
+    /**
+     * 通知所有节点更新这个 key
+     * 注意：没有缓存这个 key 的节点什么都不会做
+     */
+    void reload(@Nonnull K key);
+
+    /**
+     * 通知所有节点更新全部 key
+     */
+    void reloadAll();
+
+    /**
+     * 只更新本地缓存的这个 key
+     */
+    void reloadLocal(@Nonnull K key);
+
+    /**
+     * 只更新本地缓存的全部 key
+     */
+    void reloadAllLocal();
+
+    /**
+     * 当前缓存的 key 数量（近似值）
+     */
+    long size();
+
+    /**
+     * 取消订阅，清空本地缓存，重复调用没有副作用
+     */
+    @Override
+    default void close() {
+    }
+}
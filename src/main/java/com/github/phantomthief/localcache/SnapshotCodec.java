@@ -0,0 +1,29 @@
+package com.github.phantomthief.localcache;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 缓存值和快照文件内容之间的转换，用于重启时先从快照恢复缓存
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+public interface SnapshotCodec<T> {
+
+    /**
+     * 把 {@code value} 编码写入 {@code out}，{@code out} 直接写入快照的临时文件（已带缓冲），不需要先编码到内存里
+     * 在新值发布之后于后台调用，同一个缓存不会并发调用；编码期间这个值不会被 oldCleanup 回收
+     * 不要关闭 {@code out}；抛异常时只是本次不写快照，不影响缓存本身
+     */
+    void encode(@Nonnull T value, @Nonnull OutputStream out) throws Throwable;
+
+    /**
+     * {@code buffer} 是快照文件的内存映射（只读），解码出的值可以直接引用它而不拷贝到堆上，
+     * 之后写快照总是替换成一个新文件，不会修改已经映射的内容
+     * 抛异常或者返回 {@code null} 时忽略快照，照常构建
+     */
+    T decode(@Nonnull ByteBuffer buffer) throws Throwable;
+}
@@ -0,0 +1,83 @@
+package com.github.phantomthief.localcache.impl;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+
+import com.github.phantomthief.zookeeper.broadcast.Broadcaster.Membership;
+
+/**
+ * 根据节点数和构建耗时计算通知 reload 的随机等待上限（毫秒）
+ *
+ * N 个节点各自在 [0, W) 里均匀随机地开始一次耗时 D 的构建时，数据源上平均同时有 N * D / W 个构建，
+ * 所以取 W = N * D / C 就能让平均并发不超过 C，同时 W 也是满足这个并发的最短等待，节点不会多等
+ * N 取各个通知路径上存活节点数的最大值，D 取 factory 耗时的指数移动平均（失败的构建同样消耗数据源，也会计入）
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+final class AdaptiveJitter implements LongSupplier {
+
+    private static final Logger logger = getLogger(AdaptiveJitter.class);
+
+    /**
+     * 最近一次构建耗时的权重
+     */
+    private static final double ALPHA = 0.2;
+
+    private final int maxConcurrentRebuilds;
+    private final long maxSleepMs;
+    private final List<Membership> memberships = new CopyOnWriteArrayList<>();
+    /**
+     * 只在 {@link #recordFactoryDuration} 里加锁更新，{@link #getAsLong()} 不加锁直接读
+     */
+    private volatile long averageFactoryNanos;
+
+    AdaptiveJitter(int maxConcurrentRebuilds, long maxSleepMs) {
+        this.maxConcurrentRebuilds = maxConcurrentRebuilds;
+        this.maxSleepMs = maxSleepMs;
+    }
+
+    synchronized void recordFactoryDuration(long factoryNanos) {
+        long average = averageFactoryNanos;
+        averageFactoryNanos = average == 0L ? factoryNanos : (long) (ALPHA * factoryNanos + (1 - ALPHA) * average);
+    }
+
+    void addMembership(Membership membership) {
+        memberships.add(membership);
+    }
+
+    /**
+     * 离开所有通知路径，重复调用没有副作用
+     */
+    void closeMemberships() {
+        for (Membership membership : memberships) {
+            if (memberships.remove(membership)) {
+                try {
+                    membership.close();
+                } catch (Throwable e) {
+                    logger.warn("fail to close membership {}", membership, e);
+                }
+            }
+        }
+    }
+
+    int members() {
+        int members = 1;
+        for (Membership membership : memberships) {
+            members = Math.max(members, membership.size());
+        }
+        return members;
+    }
+
+    @Override
+    public long getAsLong() {
+        long windowNanos = members() * averageFactoryNanos / maxConcurrentRebuilds;
+        return Math.min(NANOSECONDS.toMillis(windowNanos), maxSleepMs);
+    }
+}
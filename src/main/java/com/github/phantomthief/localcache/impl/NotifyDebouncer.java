@@ -0,0 +1,66 @@
+package com.github.phantomthief.localcache.impl;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * 尾沿触发的防抖：一串触发只在最后一次触发之后安静了 {@code window} 才执行一次，
+ * 但是从这一串的第一次触发算起最多等待 {@code maxWait}
+ *
+ * 执行开始之后的触发会开始新的一串，所以最后一次触发一定会被某一次执行覆盖
+ * 延长等待不会取消已经提交的定时任务，到期时发现还需要等待就再提交一次，调度线程池里每个实例最多一个任务
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+final class NotifyDebouncer {
+
+    private final ScheduledExecutorService scheduler;
+    private final long windowNanos;
+    private final long maxWaitNanos;
+    private final Runnable action;
+
+    @GuardedBy("this")
+    private boolean scheduled;
+    @GuardedBy("this")
+    private long firstTriggerAt;
+    @GuardedBy("this")
+    private long deadline;
+
+    NotifyDebouncer(ScheduledExecutorService scheduler, long windowNanos, long maxWaitNanos, Runnable action) {
+        this.scheduler = scheduler;
+        this.windowNanos = windowNanos;
+        this.maxWaitNanos = Math.max(windowNanos, maxWaitNanos);
+        this.action = action;
+    }
+
+    void trigger() {
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (!scheduled) {
+                scheduled = true;
+                firstTriggerAt = now;
+                deadline = now + windowNanos;
+                scheduler.schedule(this::onTimer, windowNanos, NANOSECONDS);
+            } else {
+                deadline = Math.min(now + windowNanos, firstTriggerAt + maxWaitNanos);
+            }
+        }
+    }
+
+    private void onTimer() {
+        long now = System.nanoTime();
+        synchronized (this) {
+            long remaining = deadline - now;
+            if (remaining > 0) {
+                scheduler.schedule(this::onTimer, remaining, NANOSECONDS);
+                return;
+            }
+            scheduled = false;
+        }
+        action.run();
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.phantomthief.localcache.impl;
+
+import static java.lang.System.currentTimeMillis;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+
+/**
+ * {@link ZkNotifyReloadCache} 写到通知节点上的内容
+ *
+ * 格式为 {@code <timestamp>} 或者 {@code <timestamp>:<change>}，只有时间戳的是原来的格式，表示全量 reload
+ * 旧版本的订阅方解析不了带 change 的内容时会退化成一次全量 reload
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+final class NotifyPayload {
+
+    private static final Logger logger = getLogger(NotifyPayload.class);
+
+    private static final char SEPARATOR = ':';
+
+    private final long timestamp;
+    private final String change;
+
+    private NotifyPayload(long timestamp, @Nullable String change) {
+        this.timestamp = timestamp;
+        this.change = change;
+    }
+
+    @Nonnull
+    static String encode(long timestamp, @Nullable String change) {
+        return change == null ? String.valueOf(timestamp) : timestamp + String.valueOf(SEPARATOR) + change;
+    }
+
+    /**
+     * 解析失败时按本机当前时间的一次全量 reload 处理
+     */
+    @Nonnull
+    static NotifyPayload decode(@Nonnull String content) {
+        int index = content.indexOf(SEPARATOR);
+        String timestamp = index < 0 ? content : content.substring(0, index);
+        try {
+            return new NotifyPayload(Long.parseLong(timestamp), index < 0 ? null : content.substring(index + 1));
+        } catch (NumberFormatException e) { // let error throw
+            logger.warn("parse notify timestamp {} failed", content, e);
+            return new NotifyPayload(currentTimeMillis(), null);
+        }
+    }
+
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return {@code null} 表示全量 reload
+     */
+    @Nullable
+    String getChange() {
+        return change;
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.phantomthief.localcache.impl;
+
+import static java.lang.System.currentTimeMillis;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnull;
+
+import com.github.phantomthief.localcache.CacheStats;
+
+/**
+ * {@link ZkNotifyReloadCache} 的构建统计，记录只有几次无竞争的 CAS，不影响构建路径
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+final class RebuildStatsRecorder {
+
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalFactoryNanos = new LongAdder();
+    private final LongAccumulator maxFactoryNanos = new LongAccumulator(Math::max, 0L);
+    private volatile long lastSuccessTime;
+    private volatile long lastFailureTime;
+    private volatile Throwable lastFailureCause;
+
+    void recordSuccess(long factoryNanos) {
+        record(factoryNanos);
+        lastSuccessTime = currentTimeMillis();
+    }
+
+    void recordFailure(long factoryNanos, @Nonnull Throwable cause) {
+        record(factoryNanos);
+        failures.increment();
+        lastFailureCause = cause;
+        lastFailureTime = currentTimeMillis();
+    }
+
+    private void record(long factoryNanos) {
+        rebuilds.increment();
+        totalFactoryNanos.add(factoryNanos);
+        maxFactoryNanos.accumulate(factoryNanos);
+    }
+
+    CacheStats snapshot(long currentVersion) {
+        return new CacheStats(rebuilds.sum(), failures.sum(), lastSuccessTime, lastFailureTime,
+                lastFailureCause, Duration.ofNanos(totalFactoryNanos.sum()),
+                Duration.ofNanos(maxFactoryNanos.get()), currentVersion, currentTimeMillis());
+    }
+}
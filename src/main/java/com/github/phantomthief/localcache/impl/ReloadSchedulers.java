@@ -0,0 +1,52 @@
+package com.github.phantomthief.localcache.impl;
+
+import static java.lang.Thread.MIN_PRIORITY;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * 进程内所有 {@link ZkNotifyReloadCache} 共享的调度线程池
+ *
+ * 定时 reload 和 zk 通知触发的 rebuild 都复用这一组线程，每个 cache 各自的顺序由 cache 内部保证
+ * 线程数可以通过系统属性 {@code zknotify.cache.reloadThreads} 调整
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+final class ReloadSchedulers {
+
+    static final String THREADS_PROPERTY = "zknotify.cache.reloadThreads";
+
+    private ReloadSchedulers() {
+        throw new UnsupportedOperationException();
+    }
+
+    static ScheduledExecutorService shared() {
+        return LazyHolder.INSTANCE;
+    }
+
+    private static int defaultThreads() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        return Integer.getInteger(THREADS_PROPERTY, Math.max(2, Math.min(cpus, 8)));
+    }
+
+    private static final class LazyHolder {
+
+        private static final ScheduledExecutorService INSTANCE = create();
+
+        private static ScheduledExecutorService create() {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(defaultThreads(),
+                    new ThreadFactoryBuilder()
+                            .setDaemon(true)
+                            .setPriority(MIN_PRIORITY)
+                            .setNameFormat("zkNotifyReloadScheduler-%d")
+                            .build());
+            // 被 GC 回收的 cache 会 cancel 掉自己的定时任务，不要让它们残留在队列里
+            executor.setRemoveOnCancelPolicy(true);
+            return executor;
+        }
+    }
+}
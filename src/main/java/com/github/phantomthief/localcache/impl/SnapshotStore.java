@@ -0,0 +1,125 @@
+package com.github.phantomthief.localcache.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+
+import com.github.phantomthief.localcache.SnapshotCodec;
+
+/**
+ * {@link ZkNotifyReloadCache} 的快照文件，读取通过内存映射，写入时 codec 直接流式写入文件，不在堆上保留完整的编码结果
+ *
+ * 文件格式为 magic(4) + 长度(4) + crc32(8) + 编码后的内容，头部在内容写完之后回填
+ * 写入时先写临时文件再原子地替换，所以读到的要么是完整的旧快照，要么是完整的新快照，已经映射的旧文件也不会被修改
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+final class SnapshotStore<T> {
+
+    private static final Logger logger = getLogger(SnapshotStore.class);
+
+    private static final int MAGIC = 0x7a6e7331; // "zns1"
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final SnapshotCodec<T> codec;
+
+    SnapshotStore(Path file, SnapshotCodec<T> codec) {
+        this.file = file.toAbsolutePath();
+        this.codec = codec;
+    }
+
+    /**
+     * @return 没有快照、快照损坏或者解码失败时返回 {@code null}
+     */
+    @Nullable
+    T load() {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            MappedByteBuffer buffer = channel.map(READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                logger.warn("ignore snapshot {} with unknown format.", file);
+                return null;
+            }
+            int length = buffer.getInt();
+            long checksum = buffer.getLong();
+            if (length != buffer.remaining()) {
+                logger.warn("ignore truncated snapshot {}, expect {} bytes but {}.", file, length,
+                        buffer.remaining());
+                return null;
+            }
+            ByteBuffer content = buffer.slice();
+            CRC32 crc32 = new CRC32();
+            crc32.update(content.duplicate());
+            if (crc32.getValue() != checksum) {
+                logger.warn("ignore corrupted snapshot {}.", file);
+                return null;
+            }
+            return codec.decode(content.asReadOnlyBuffer());
+        } catch (Throwable e) {
+            logger.warn("fail to load snapshot {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * 失败时只打日志，不影响缓存本身
+     */
+    void save(T value) {
+        try {
+            Path parent = file.getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "." + file.getFileName(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temp, READ, WRITE)) {
+                    channel.position(HEADER_SIZE);
+                    CRC32 crc32 = new CRC32();
+                    // 不关闭这个流，关闭会连带关闭 channel，头部还没有写
+                    OutputStream out = new BufferedOutputStream(
+                            new CheckedOutputStream(Channels.newOutputStream(channel), crc32), WRITE_BUFFER_SIZE);
+                    codec.encode(value, out);
+                    out.flush();
+                    long length = channel.position() - HEADER_SIZE;
+                    checkArgument(length <= Integer.MAX_VALUE - HEADER_SIZE, "snapshot is too large.");
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                            .putInt(MAGIC)
+                            .putInt((int) length)
+                            .putLong(crc32.getValue());
+                    header.flip();
+                    channel.position(0);
+                    while (header.hasRemaining()) {
+                        channel.write(header);
+                    }
+                    channel.force(false);
+                }
+                Files.move(temp, file, ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (Throwable e) {
+            logger.warn("fail to save snapshot {}", file, e);
+        }
+    }
+}
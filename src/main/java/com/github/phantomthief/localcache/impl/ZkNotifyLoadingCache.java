@@ -0,0 +1,463 @@
+package com.github.phantomthief.localcache.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.slf4j.Logger;
+
+import com.github.phantomthief.localcache.KeyedCacheFactory;
+import com.github.phantomthief.localcache.ReloadableLoadingCache;
+import com.github.phantomthief.zookeeper.broadcast.Broadcaster;
+import com.github.phantomthief.zookeeper.broadcast.Broadcaster.Subscriber;
+import com.github.phantomthief.zookeeper.broadcast.ZkBroadcaster;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalListener;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * 基于 {@link LoadingCache} 的 {@link ReloadableLoadingCache}，通过 {@link Broadcaster} 按 key 通知所有节点更新
+ *
+ * 通知节点上的内容格式见 {@link NotifyPayload}，变更描述就是编码后的 key，没有变更描述表示更新全部 key
+ * zk 的 watch 只保证看到最新的内容，短时间内对不同 key 的多次通知可能只收到最后一次，
+ * 通知的版本号不连续时说明中间有 key 的通知丢了，此时失效全部 key
+ * broadcaster 不提供版本号时（比如 {@link com.github.phantomthief.zookeeper.broadcast.MulticastBroadcaster}）
+ * 无法发现丢失的通知，建议配合 {@link Builder#expireAfterWrite} 兜底
+ * 失效不会打断正在进行的加载，所以加载完成之后会检查加载期间是否收到过这个 key 的通知，收到过就重新加载一次，
+ * 不会把通知之前读到的值放进缓存
+ *
+ * <pre>{@code
+ * ReloadableLoadingCache<Long, User> cache = ZkNotifyLoadingCache.<Long, User> newBuilder()
+ *         .withCacheFactory(userDAO::getUser)
+ *         .withKeyCodec(String::valueOf, Long::valueOf)
+ *         .withNotifyZkPath("/broadcast/users")
+ *         .withCuratorFactory(this::getCuratorFactory)
+ *         .maximumSize(100000)
+ *         .build();
+ *
+ * User user = cache.get(1L);
+ * cache.reload(1L); // 通过zk通知所有节点更新这个 key
+ * }</pre>
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+public class ZkNotifyLoadingCache<K, V> implements ReloadableLoadingCache<K, V> {
+
+    private static final Logger logger = getLogger(ZkNotifyLoadingCache.class);
+
+    private static final int GENERATION_STRIPES = 64;
+    /**
+     * 加载期间一直有通知时最多加载这么多次，之后放弃重试，避免通知太频繁时加载永远完成不了
+     */
+    private static final int MAX_LOAD_ATTEMPTS = 10;
+
+    private final LoadingCache<K, V> cache;
+    private final String notifyZkPath;
+    private final Broadcaster broadcaster;
+    private final boolean ownBroadcaster;
+    private final Function<K, String> keyEncoder;
+    private final Function<String, K> keyDecoder;
+    private final boolean refreshOnNotify;
+
+    private final Subscriber subscriber = new Subscriber() {
+
+        @Override
+        public void onChanged(String content) {
+            onNotify(content, NO_VERSION);
+        }
+
+        @Override
+        public void onChanged(String content, long version) {
+            onNotify(content, version);
+        }
+    };
+    private final AtomicReference<String> lastNotifyContent = new AtomicReference<>();
+    private final AtomicLong lastNotifyVersion = new AtomicLong(Subscriber.NO_VERSION);
+    /**
+     * 按 key 的 hash 分段的失效代数，{@link #reloadLocal} 增加 key 所在的分段，{@link #reloadAllLocal} 增加
+     * {@link #allGeneration}；一次加载前后代数不同，说明加载期间 key 被通知失效过，加载结果可能已经过时
+     */
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong allGeneration = new AtomicLong();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private ZkNotifyLoadingCache(Builder<K, V> builder) {
+        this.notifyZkPath = builder.notifyZkPath;
+        this.broadcaster = builder.broadcaster;
+        this.ownBroadcaster = builder.ownBroadcaster;
+        this.keyEncoder = builder.keyEncoder;
+        this.keyDecoder = builder.keyDecoder;
+        this.refreshOnNotify = builder.refreshOnNotify;
+
+        KeyedCacheFactory<K, V> cacheFactory = builder.cacheFactory;
+        Consumer<V> oldCleanup = builder.oldCleanup;
+        CacheLoader<K, V> loader = new CacheLoader<K, V>() {
+
+            @Override
+            public V load(K key) throws Exception {
+                for (int attempt = 1;; attempt++) {
+                    long generation = generationOf(key);
+                    V value;
+                    try {
+                        value = cacheFactory.get(key);
+                    } catch (Exception | Error e) {
+                        throw e;
+                    } catch (Throwable e) {
+                        throw new CacheBuildFailedException("fail to build cache, key:" + key, e);
+                    }
+                    if (generation == generationOf(key)) {
+                        return value;
+                    }
+                    if (attempt >= MAX_LOAD_ATTEMPTS) {
+                        logger.warn("key:{} is still notified after {} loads, use the last one, path:{}", key,
+                                attempt, notifyZkPath);
+                        return value;
+                    }
+                    // 加载期间收到了通知，这次读到的值可能是通知之前的，丢弃之后重新加载
+                    logger.debug("key:{} is notified while loading, load again, path:{}", key, notifyZkPath);
+                    cleanup(oldCleanup, key, value);
+                }
+            }
+        };
+        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+        if (builder.maximumSize > 0) {
+            cacheBuilder.maximumSize(builder.maximumSize);
+        }
+        if (builder.expireAfterWrite != null) {
+            cacheBuilder.expireAfterWrite(builder.expireAfterWrite.toNanos(), NANOSECONDS);
+        }
+        RemovalListener<K, V> removalListener = notification -> cleanup(oldCleanup, notification.getKey(),
+                notification.getValue());
+        this.cache = cacheBuilder.removalListener(removalListener)
+                .build(CacheLoader.asyncReloading(loader, builder.refreshExecutor));
+    }
+
+    public static <K, V> Builder<K, V> newBuilder() {
+        return new Builder<>();
+    }
+
+    @Nonnull
+    @Override
+    public V get(@Nonnull K key) {
+        checkNotNull(key);
+        checkState(!closed.get(), "cache is closed.");
+        // 先订阅再加载，加载期间收到的通知由加载完成时的代数检查处理
+        ensureSubscribed();
+        try {
+            return cache.get(key);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            throwIfUnchecked(cause);
+            throw new CacheBuildFailedException("fail to build cache, key:" + key, cause);
+        }
+    }
+
+    @Nullable
+    @Override
+    public V getIfPresent(@Nonnull K key) {
+        return cache.getIfPresent(checkNotNull(key));
+    }
+
+    @Override
+    public void reload(@Nonnull K key) {
+        broadcast(keyEncoder.apply(checkNotNull(key)));
+    }
+
+    @Override
+    public void reloadAll() {
+        broadcast(null);
+    }
+
+    private void broadcast(@Nullable String change) {
+        if (broadcaster != null && notifyZkPath != null) {
+            broadcaster.broadcast(notifyZkPath, NotifyPayload.encode(currentTimeMillis(), change));
+        } else {
+            logger.warn("no zk broadcast or notify zk path found. ignore reload.");
+        }
+    }
+
+    /**
+     * 开启 {@link Builder#refreshOnNotify()} 时在后台重新加载，加载完成之前仍然返回旧值；否则直接失效，下一次访问时加载
+     */
+    @Override
+    public void reloadLocal(@Nonnull K key) {
+        checkNotNull(key);
+        generations.incrementAndGet(stripeOf(key));
+        if (refreshOnNotify) {
+            if (cache.getIfPresent(key) != null) {
+                cache.refresh(key);
+            }
+        } else {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * 全部 key 总是直接失效，不会同时在后台重新加载所有 key
+     */
+    @Override
+    public void reloadAllLocal() {
+        allGeneration.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public long size() {
+        return cache.size();
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (subscribed.get()) {
+            try {
+                broadcaster.unsubscribe(notifyZkPath, subscriber);
+            } catch (UnsupportedOperationException e) {
+                logger.warn("broadcaster {} does not support unsubscribe, path:{} may still be notified.",
+                        broadcaster.getClass().getName(), notifyZkPath);
+            } catch (Throwable e) {
+                logger.error("fail to unsubscribe path:{}", notifyZkPath, e);
+            }
+        }
+        if (ownBroadcaster) {
+            try {
+                broadcaster.close();
+            } catch (Throwable e) {
+                logger.error("fail to close broadcaster, path:{}", notifyZkPath, e);
+            }
+        }
+        cache.invalidateAll();
+        logger.info("ZkNotifyLoadingCache is closed, path: {}", notifyZkPath);
+    }
+
+    /**
+     * 两个代数都只增不减，它们的和变了就说明其中一个变了
+     */
+    private long generationOf(K key) {
+        return allGeneration.get() + generations.get(stripeOf(key));
+    }
+
+    private static int stripeOf(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private static <K, V> void cleanup(@Nullable Consumer<V> oldCleanup, K key, @Nullable V value) {
+        if (oldCleanup != null && value != null) {
+            try {
+                oldCleanup.accept(value);
+            } catch (Throwable e) {
+                logger.error("fail to cleanup value, key:{}", key, e);
+            }
+        }
+    }
+
+    private void ensureSubscribed() {
+        if (broadcaster == null || notifyZkPath == null || subscribed.get()) {
+            return;
+        }
+        synchronized (subscribed) {
+            if (!subscribed.get()) {
+                broadcaster.subscribe(notifyZkPath, subscriber);
+                subscribed.set(true);
+            }
+        }
+    }
+
+    /**
+     * 同一个 subscriber 的回调不会并发执行
+     */
+    private void onNotify(String content, long version) {
+        if (version != Subscriber.NO_VERSION) {
+            long lastVersion = lastNotifyVersion.getAndSet(version);
+            if (lastVersion != Subscriber.NO_VERSION && version != lastVersion + 1) {
+                // 中间的通知被合并或者丢弃了，不知道是哪些 key，只能全部失效
+                logger.warn("notify version jumped from {} to {}, reload all keys, path:{}", lastVersion, version,
+                        notifyZkPath);
+                lastNotifyContent.set(content);
+                reloadAllLocal();
+                return;
+            }
+        }
+        String lastNotify = lastNotifyContent.getAndSet(content);
+        if (Objects.equals(lastNotify, content)) {
+            logger.debug("notify with same content {} with previous, skip", content);
+            return;
+        }
+
+        String change = NotifyPayload.decode(content).getChange();
+        if (change == null) {
+            reloadAllLocal();
+            return;
+        }
+        K key;
+        try {
+            key = keyDecoder.apply(change);
+        } catch (Throwable e) {
+            logger.error("fail to decode key:{}, reload all keys, path:{}", change, notifyZkPath, e);
+            reloadAllLocal();
+            return;
+        }
+        reloadLocal(key);
+    }
+
+    public static final class Builder<K, V> {
+
+        private KeyedCacheFactory<K, V> cacheFactory;
+        private String notifyZkPath;
+        private Broadcaster broadcaster;
+        private boolean ownBroadcaster;
+        private Function<K, String> keyEncoder;
+        private Function<String, K> keyDecoder;
+        private long maximumSize;
+        private Duration expireAfterWrite;
+        private boolean refreshOnNotify;
+        private Executor refreshExecutor;
+        private Consumer<V> oldCleanup;
+
+        @CheckReturnValue
+        @Nonnull
+        public Builder<K, V> withCacheFactory(@Nonnull KeyedCacheFactory<K, V> cacheFactory) {
+            this.cacheFactory = checkNotNull(cacheFactory);
+            return this;
+        }
+
+        @CheckReturnValue
+        @Nonnull
+        public Builder<K, V> withNotifyZkPath(@Nonnull String notifyZkPath) {
+            this.notifyZkPath = checkNotNull(notifyZkPath);
+            return this;
+        }
+
+        @CheckReturnValue
+        @Nonnull
+        public Builder<K, V> withBroadcaster(@Nonnull Broadcaster broadcaster) {
+            this.broadcaster = requireNonNull(broadcaster);
+            this.ownBroadcaster = false;
+            return this;
+        }
+
+        @CheckReturnValue
+        @Nonnull
+        public Builder<K, V> withCuratorFactory(Supplier<CuratorFramework> curatorFactory) {
+            return withCuratorFactory(curatorFactory, null);
+        }
+
+        @CheckReturnValue
+        @Nonnull
+        public Builder<K, V> withCuratorFactory(Supplier<CuratorFramework> curatorFactory,
+                String broadcastPrefix) {
+            this.broadcaster = new ZkBroadcaster(curatorFactory, broadcastPrefix);
+            this.ownBroadcaster = true;
+            return this;
+        }
+
+        /**
+         * key 和通知内容之间的转换，编码后的 key 会写入通知节点，应该尽量短小
+         * key 是 {@link String} 时可以不设置
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder<K, V> withKeyCodec(@Nonnull Function<K, String> keyEncoder,
+                @Nonnull Function<String, K> keyDecoder) {
+            this.keyEncoder = checkNotNull(keyEncoder);
+            this.keyDecoder = checkNotNull(keyDecoder);
+            return this;
+        }
+
+        @CheckReturnValue
+        @Nonnull
+        public Builder<K, V> maximumSize(long maximumSize) {
+            checkArgument(maximumSize > 0, "maximumSize must be positive.");
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        @CheckReturnValue
+        @Nonnull
+        public Builder<K, V> expireAfterWrite(@Nonnull Duration duration) {
+            checkArgument(!checkNotNull(duration).isNegative() && !duration.isZero(), "invalid duration.");
+            this.expireAfterWrite = duration;
+            return this;
+        }
+
+        /**
+         * 收到某个 key 的通知时在后台重新加载它，加载完成之前仍然返回旧值，而不是直接失效
+         * 适合加载比较慢、又不希望通知之后第一次访问被阻塞的场景
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder<K, V> refreshOnNotify() {
+            this.refreshOnNotify = true;
+            return this;
+        }
+
+        /**
+         * {@link #refreshOnNotify()} 使用的线程池，默认为进程内共享的调度线程池
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder<K, V> withRefreshExecutor(@Nonnull Executor refreshExecutor) {
+            this.refreshExecutor = checkNotNull(refreshExecutor);
+            return this;
+        }
+
+        /**
+         * 值被替换、失效、淘汰或者过期时回调
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder<K, V> withOldCleanup(@Nonnull Consumer<V> oldCleanup) {
+            this.oldCleanup = checkNotNull(oldCleanup);
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Nonnull
+        public ZkNotifyLoadingCache<K, V> build() {
+            checkNotNull(cacheFactory, "no cache factory.");
+            if (notifyZkPath != null) {
+                checkNotNull(broadcaster, "no broadcaster.");
+            }
+            if (keyEncoder == null) {
+                keyEncoder = key -> {
+                    checkState(key instanceof String, "no key codec for key type:%s", key.getClass());
+                    return (String) key;
+                };
+                keyDecoder = key -> (K) key;
+            }
+            if (refreshExecutor == null) {
+                refreshExecutor = ReloadSchedulers.shared();
+            }
+            return new ZkNotifyLoadingCache<>(this);
+        }
+    }
+}
@@ -1,28 +1,47 @@
 package com.github.phantomthief.localcache.impl;
 
 import static com.github.phantomthief.concurrent.MoreFutures.scheduleWithDynamicDelay;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.google.common.util.concurrent.MoreExecutors.newSequentialExecutor;
+import static java.lang.Boolean.TRUE;
 import static java.lang.System.currentTimeMillis;
-import static java.lang.Thread.MIN_PRIORITY;
 import static java.time.Duration.ofMillis;
+import static java.util.Collections.emptyList;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.ofNullable;
-import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.lang.ref.WeakReference;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -37,14 +56,19 @@ import javax.annotation.concurrent.GuardedBy;
 import org.apache.curator.framework.CuratorFramework;
 import org.slf4j.Logger;
 
+import com.github.phantomthief.localcache.AsyncCacheFactory;
 import com.github.phantomthief.localcache.CacheFactory;
 import com.github.phantomthief.localcache.CacheFactoryEx;
+import com.github.phantomthief.localcache.CacheMetricsListener;
+import com.github.phantomthief.localcache.CacheStats;
+import com.github.phantomthief.localcache.DeltaCacheFactory;
 import com.github.phantomthief.localcache.ReloadableCache;
+import com.github.phantomthief.localcache.SnapshotCodec;
 import com.github.phantomthief.zookeeper.broadcast.Broadcaster;
+import com.github.phantomthief.zookeeper.broadcast.Broadcaster.Subscriber;
 import com.github.phantomthief.zookeeper.broadcast.ZkBroadcaster;
 import com.google.common.base.Throwables;
 import com.google.common.util.concurrent.SettableFuture;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * @author w.vela
@@ -53,31 +77,138 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
 
     private static final Logger logger = getLogger(ZkNotifyReloadCache.class);
 
+    private static final List<String> NO_CHANGE = new ArrayList<>(0);
+    private static final int DEFAULT_MAX_PENDING_CHANGES = 1000;
+    private static final Duration DEFAULT_ASYNC_FACTORY_TIMEOUT = Duration.ofMinutes(10);
+
+    /**
+     * {@link #cacheFactory} 和 {@link #asyncCacheFactory} 有且只有一个不为 {@code null}
+     * 使用 {@link #deltaCacheFactory} 时，{@link #cacheFactory} 是它全量构建的包装
+     */
     private final CacheFactoryEx<T> cacheFactory;
+    private final AsyncCacheFactory<T> asyncCacheFactory;
+    private final Duration asyncFactoryTimeout;
+    private final DeltaCacheFactory<T> deltaCacheFactory;
+    private final int maxPendingChanges;
+    private final SnapshotStore<T> snapshotStore;
+    private final Supplier<T> bootstrapFactory;
+    /**
+     * 当前发布的值是否还是启动时的快照或者 bootstrap 值，第一次构建成功发布之后变为 {@code false}
+     */
+    private volatile boolean servingBootstrap;
     private final Supplier<T> firstAccessFailFactory;
     private final Set<String> notifyZkPaths;
     private final Consumer<T> oldCleanup;
     private final LongSupplier maxRandomSleepOnNotifyReload;
+    /**
+     * 使用自适应随机等待时不为 {@code null}，此时 {@link #maxRandomSleepOnNotifyReload} 就是它
+     */
+    private final AdaptiveJitter adaptiveJitter;
+    private final Duration notifyDebounceWindow;
+    private final Duration notifyDebounceMaxWait;
+    /**
+     * 按 broadcaster 给出的版本号（zk 通知节点的数据版本）去重，而不是按通知内容
+     */
+    private final boolean versionedNotify;
     private final Broadcaster broadcaster;
+    /**
+     * broadcaster 是否由本 cache 创建（{@link Builder#withCuratorFactory}），是的话关闭时一起关闭
+     */
+    private final boolean ownBroadcaster;
     private final Supplier<Duration> scheduleRunDuration;
-    @Nullable
-    private final ScheduledExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownScheduler;
+    private final Executor asyncInitExecutor;
+    /**
+     * 本 cache 所有 rebuild 都通过这里串行执行，底层复用 {@link #scheduler} 的线程
+     */
+    private final Executor rebuildExecutor;
     private final Runnable recycleListener;
+    private final CacheMetricsListener metricsListener;
+    private final RebuildStatsRecorder stats = new RebuildStatsRecorder();
+    /**
+     * 最早一次还没有生效的通知的写入时间，由通知触发的 rebuild 开始时取走，用于统计端到端的生效耗时
+     */
+    private final AtomicLong pendingBroadcastTimestamp = new AtomicLong();
     private Future<?> postInitFuture;
+    /**
+     * 本 cache 在各个 path 上注册的 subscriber，关闭时用来取消订阅
+     */
+    private final Map<String, Subscriber> notifySubscribers = new ConcurrentHashMap<>();
+    private volatile Future<?> autoReloadFuture;
+    private final AtomicBoolean closed = new AtomicBoolean();
 
-    private volatile T cachedObject;
+    /**
+     * 当前发布的缓存值，读路径只有这一次 volatile 读
+     * 每次构建开始前从 {@link #rebuildSequence} 领一个版本号，发布时只接受比当前版本更新的结果
+     */
+    private final AtomicReference<Versioned<T>> current = new AtomicReference<>();
+    private final AtomicLong rebuildSequence = new AtomicLong();
     private volatile boolean entered;
+    /**
+     * {@link #getAsync()} 发起的、还没有完成的后台初始化
+     */
+    private final AtomicReference<CompletableFuture<T>> asyncInit = new AtomicReference<>();
+
+    /**
+     * single-flight：同一时刻最多一个 rebuild 在执行，执行期间的所有触发合并成最多一次后续 rebuild
+     */
+    private final Object rebuildLock = new Object();
+    @GuardedBy("rebuildLock")
+    private CompletableFuture<T> inFlightRebuild;
+    @GuardedBy("rebuildLock")
+    private CompletableFuture<T> pendingRebuild;
+    /**
+     * 当前线程是否正在执行本 cache 的 rebuild（factory 调用或者发布），此时 {@link #reloadLocal()} 不能等待
+     */
+    private final ThreadLocal<Boolean> rebuilding = new ThreadLocal<>();
+
+    /**
+     * 正在写入快照的值，写完之前它被替换下来时不立即回调 oldCleanup，而是由写快照的任务写完之后回调
+     */
+    private final Object snapshotLock = new Object();
+    @GuardedBy("snapshotLock")
+    private T savingSnapshot;
+    @GuardedBy("snapshotLock")
+    private boolean savingSnapshotReplaced;
+
+    /**
+     * 只有使用 {@link #deltaCacheFactory} 时才会记录：下一次 rebuild 要处理的变更，以及是否需要全量构建
+     */
+    private final Object changesLock = new Object();
+    @GuardedBy("changesLock")
+    private List<String> pendingChanges = new ArrayList<>();
+    @GuardedBy("changesLock")
+    private boolean fullRebuildPending;
 
     private ZkNotifyReloadCache(Builder<T> builder) {
         this.cacheFactory = builder.cacheFactory;
+        this.asyncCacheFactory = builder.asyncCacheFactory;
+        this.asyncFactoryTimeout = builder.asyncFactoryTimeout;
+        this.deltaCacheFactory = builder.deltaCacheFactory;
+        this.maxPendingChanges = builder.maxPendingChanges;
+        this.snapshotStore = builder.snapshotFile == null ? null
+                : new SnapshotStore<>(builder.snapshotFile, builder.snapshotCodec);
         this.firstAccessFailFactory = wrapTry(builder.firstAccessFailFactory);
+        this.bootstrapFactory = wrapTry(builder.bootstrapFactory);
         this.notifyZkPaths = builder.notifyZkPaths;
         this.oldCleanup = wrapTry(builder.oldCleanup);
-        this.maxRandomSleepOnNotifyReload = builder.maxRandomSleepOnNotifyReload;
+        this.adaptiveJitter = builder.adaptiveMaxSleep == null ? null
+                : new AdaptiveJitter(builder.adaptiveMaxConcurrentRebuilds, builder.adaptiveMaxSleep.toMillis());
+        this.maxRandomSleepOnNotifyReload = adaptiveJitter != null ? adaptiveJitter
+                : builder.maxRandomSleepOnNotifyReload;
+        this.notifyDebounceWindow = builder.notifyDebounceWindow;
+        this.notifyDebounceMaxWait = builder.notifyDebounceMaxWait;
+        this.versionedNotify = builder.versionedNotify;
         this.broadcaster = builder.broadcaster;
+        this.ownBroadcaster = builder.ownBroadcaster;
         this.scheduleRunDuration = builder.scheduleRunDuration;  // autoReload
-        this.executor = builder.executor;
+        this.scheduler = builder.scheduler;
+        this.ownScheduler = builder.ownScheduler;
+        this.asyncInitExecutor = builder.asyncInitExecutor;
+        this.rebuildExecutor = newSequentialExecutor(scheduler);
         this.recycleListener = builder.recycleListener;
+        this.metricsListener = new SafeMetricsListener(builder.metricsListener);
     }
 
     public static <T> ZkNotifyReloadCache<T> of(CacheFactory<T> cacheFactory, String notifyZkPath,
@@ -93,27 +224,109 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
         return new Builder<>();
     }
 
-    // 直接把cachedObject拿出来，不会阻塞
-    // 第一次加载的时候会阻塞
+    // 直接把当前发布的值拿出来，不会阻塞
+    // 第一次加载的时候会阻塞，只有第一次加载才会用到 monitor
     @Override
     public T get() {
-        if (cachedObject == null) {
+        Versioned<T> snapshot = current.get();
+        if (snapshot == null) {
             synchronized (ZkNotifyReloadCache.this) {
-                if (cachedObject == null) {
+                snapshot = current.get();
+                if (snapshot == null) {
+                    checkState(!closed.get(), "cache is closed.");
                     if (entered) {
                         logger.warn("发现循环引用，请不要在 ReloadableCache factory 内引用自身，如果希望取到之前的缓存值，请参考"
                                 + " com.github.phantomthief.localcache.CacheFactoryEx.get");
                     }
                     entered = true;
                     try {
-                        cachedObject = init();
+                        snapshot = init();
                     } finally {
                         entered = false;
                     }
+                    if (snapshot == null) {
+                        return null;
+                    }
                 }
             }
         }
-        return cachedObject;
+        return snapshot.value;
+    }
+
+    /**
+     * 缓存已经初始化时直接返回完成的 future
+     * 否则在后台执行一次和 {@link #get()} 相同的初始化，并发调用共享同一个 future；初始化失败之后的调用会重新尝试
+     * 初始化默认在一个新的 daemon 线程上执行，可以通过 {@link Builder#withAsyncInitExecutor} 指定
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<T> getAsync() {
+        while (true) {
+            Versioned<T> snapshot = current.get();
+            if (snapshot != null) {
+                return CompletableFuture.completedFuture(snapshot.value);
+            }
+            CompletableFuture<T> future = asyncInit.get();
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            if (asyncInit.compareAndSet(null, future)) {
+                startAsyncInit(future);
+                return future;
+            }
+        }
+    }
+
+    private void startAsyncInit(CompletableFuture<T> future) {
+        Runnable init = () -> {
+            try {
+                future.complete(get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                asyncInit.compareAndSet(future, null);
+            }
+        };
+        try {
+            if (asyncInitExecutor != null) {
+                asyncInitExecutor.execute(init);
+            } else {
+                // 初始化可能很慢，不占用和其他 cache 共享的调度线程
+                Thread t = new Thread(init);
+                t.setName("zkAutoReloadThread-asyncInit-" + notifyZkPaths);
+                t.setDaemon(true);
+                t.start();
+            }
+        } catch (Throwable e) {
+            asyncInit.compareAndSet(future, null);
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 版本号为当前发布值的版本，每次构建都会领取一个新版本号，所以不一定连续
+     */
+    @Nonnull
+    @Override
+    public CacheStats stats() {
+        Versioned<T> snapshot = current.get();
+        return stats.snapshot(snapshot == null ? 0L : snapshot.version);
+    }
+
+    @Nullable
+    @Override
+    public T getIfPresent() {
+        Versioned<T> snapshot = current.get();
+        return snapshot == null ? null : snapshot.value;
+    }
+
+    /**
+     * 当前的值是否还是启动时从快照恢复的、或者 bootstrap 值（可能已经过时），后台的第一次构建成功之后返回 {@code false}
+     * 没有配置 {@link Builder#withSnapshot} 或者 {@link Builder#bootstrapFactory} 时总是返回 {@code false}
+     */
+    public boolean isServingBootstrap() {
+        return servingBootstrap;
     }
 
     public Set<String> getZkNotifyPaths() {
@@ -121,22 +334,37 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
     }
 
     /**
+     * 0、配置了快照或者 bootstrap 值时先直接使用，真正的构建放到后台执行
      * 1、调用cacheFactory获取值，如果失败，则调用firstAccessFailFactory获取值
      * 2、如果获取到了值，则 zk注册，以及启动cache定时reload等逻辑
      */
     @GuardedBy("this")
-    private T init() {
-        T obj;
-        try {
-            // 1、调用cacheFactory获取值，如果失败，则调用firstAccessFailFactory获取值
-            obj = cacheFactory.get(null);
-        } catch (Throwable e) {
-            if (firstAccessFailFactory != null) {
-                obj = firstAccessFailFactory.get();
-                logger.error("fail to build cache, using empty value:{}", obj, e);
-            } else {
-                throwIfUnchecked(e);
-                throw new CacheBuildFailedException("fail to build cache.", e);
+    @Nullable
+    private Versioned<T> init() {
+        long version = rebuildSequence.incrementAndGet();
+        T obj = loadBootstrap();
+        boolean bootstrapped = obj != null;
+        if (!bootstrapped) {
+            long factoryStart = System.nanoTime();
+            try {
+                // 1、调用cacheFactory获取值，如果失败，则调用firstAccessFailFactory获取值
+                // 同步的 factory 直接在当前线程上执行，异步的 factory 在这里等待完成
+                if (asyncCacheFactory != null) {
+                    obj = callAsyncFactory(null).join();
+                } else {
+                    obj = cacheFactory.get(null);
+                }
+                onFactoryDone(System.nanoTime() - factoryStart, null);
+            } catch (Throwable e) {
+                e = unwrap(e);
+                onFactoryDone(System.nanoTime() - factoryStart, e);
+                if (firstAccessFailFactory != null) {
+                    obj = firstAccessFailFactory.get();
+                    logger.error("fail to build cache, using empty value:{}", obj, e);
+                } else {
+                    throwIfUnchecked(e);
+                    throw new CacheBuildFailedException("fail to build cache.", e);
+                }
             }
         }
 
@@ -173,8 +401,27 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
                 }
                 throw new CacheBuildFailedException("post cache init failed", e);
             }
+            // 如果 zk 注册期间已经有通知触发的 rebuild 发布了更新的值，这里的结果会被丢弃
+            servingBootstrap = bootstrapped;
+            if (publish(version, null, obj)) {
+                metricsListener.onPublished(version, -1L);
+                if (!bootstrapped) {
+                    saveSnapshot(obj);
+                }
+            } else {
+                servingBootstrap = false;
+            }
+            if (bootstrapped) {
+                // 快照或者 bootstrap 值可能已经过时，立即在后台全量构建一次
+                markFullRebuild();
+                requestRebuild(rebuildExecutor);
+            }
+            Versioned<T> published = current.get();
+            // 只有初始化期间 cache 被关闭了才会发布后又被清掉
+            checkState(published != null, "cache is closed.");
+            return published;
         }
-        return obj;
+        return null;
     }
 
     /**
@@ -186,26 +433,9 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
         if (broadcaster != null && notifyZkPaths != null) {
             notifyZkPaths.forEach(notifyZkPath -> {
                 AtomicLong sleeping = new AtomicLong();
-                AtomicLong lastNotifyTimestamp = new AtomicLong();
-                // 定义 zk的 onChange()
-                broadcaster.subscribe(notifyZkPath, content -> {
-                    long timestamp;
-                    try {
-                        timestamp = Long.parseLong(content);
-                    } catch (Exception e) { // let error throw
-                        logger.warn("parse notify timestamp {} failed", content, e);
-                        timestamp = System.currentTimeMillis();
-                    }
-                    long lastNotify;
-                    // 只会执行一次，下一次两个值就相等了
-                    do {
-                        lastNotify = lastNotifyTimestamp.get();
-                        if (lastNotify == timestamp) {
-                            logger.debug("notify with same timestamp {} with previous, skip", timestamp);
-                            return;
-                        }
-                    } while (!lastNotifyTimestamp.compareAndSet(lastNotify, timestamp));
-
+                AtomicReference<String> lastNotifyContent = new AtomicReference<>();
+                AtomicLong lastNotifyVersion = new AtomicLong(Subscriber.NO_VERSION);
+                Runnable scheduleRebuild = () -> {
                     long deadline = sleeping.get();
                     if (deadline > 0L) {
                         logger.warn("ignore rebuild cache:{}, remaining sleep in:{}ms.",
@@ -219,38 +449,106 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
                             .map(ThreadLocalRandom.current()::nextLong)
                             .orElse(0L);
                     sleeping.set(sleepFor + currentTimeMillis());
-                    // executor should not be null when enable notify
+                    metricsListener.onNotifyDelayed(notifyZkPath, sleepFor);
                     // 延迟rebuild(), 即调用cacheFactory获取值
-                    executor.schedule(() -> {
+                    scheduler.schedule(() -> {
                         sleeping.set(0L);
-                        doRebuild();
+                        requestRebuild(rebuildExecutor);
                     }, sleepFor, MILLISECONDS);
-                });
+                };
+                // 开启防抖时，一串通知先合并成一次，再进入随机等待
+                Runnable onNotify = notifyDebounceWindow == null ? scheduleRebuild
+                        : new NotifyDebouncer(scheduler, notifyDebounceWindow.toNanos(),
+                                notifyDebounceMaxWait.toNanos(), scheduleRebuild)::trigger;
+                // 定义 zk的 onChange()
+                Subscriber subscriber = new Subscriber() {
+
+                    @Override
+                    public void onChanged(String content) {
+                        onChanged(content, NO_VERSION);
+                    }
+
+                    @Override
+                    public void onChanged(String content, long version) {
+                        // 同一个 subscriber 的回调不会并发执行，并且按写入顺序执行
+                        // 版本号不连续说明中间的通知被合并或者丢弃了，它们带的变更只能通过全量构建补上
+                        boolean sameContent = Objects.equals(lastNotifyContent.getAndSet(content), content);
+                        boolean missed = false;
+                        if (version != NO_VERSION) {
+                            long lastVersion = lastNotifyVersion.getAndSet(version);
+                            if (lastVersion != NO_VERSION && version != lastVersion + 1) {
+                                if (version == lastVersion && sameContent) {
+                                    // 比如 zk 重连之后重新读到了同一次写入
+                                    logger.debug("notify version {} is duplicated, skip", version);
+                                    return;
+                                }
+                                // 回调不会乱序，版本号变小、或者版本号相同而内容不同，说明通知节点被删除后重建了，
+                                // 版本号从头开始，重建前后的通知同样可能丢了
+                                missed = true;
+                            }
+                        }
+                        if (!missed && (!versionedNotify || version == NO_VERSION) && sameContent) {
+                            logger.debug("notify with same content {} with previous, skip", content);
+                            return;
+                        }
+                        NotifyPayload payload = NotifyPayload.decode(content);
+                        long timestamp = payload.getTimestamp();
+                        // 随机等待期间被忽略的通知，变更也要交给之后的那次 rebuild
+                        if (missed) {
+                            logger.warn("notify version is not continuous at {}, fallback to full rebuild, path:{}",
+                                    version, notifyZkPath);
+                            markFullRebuild();
+                        } else if (payload.getChange() != null) {
+                            addChange(payload.getChange());
+                        } else {
+                            markFullRebuild();
+                        }
+                        metricsListener.onNotifyReceived(notifyZkPath, currentTimeMillis() - timestamp);
+                        // 只记录最早的一次，随机等待期间被忽略的通知会由同一次 rebuild 生效
+                        pendingBroadcastTimestamp.compareAndSet(0L, timestamp);
+                        onNotify.run();
+                    }
+                };
+                notifySubscribers.put(notifyZkPath, subscriber);
+                broadcaster.subscribe(notifyZkPath, subscriber);
+                if (adaptiveJitter != null) {
+                    joinQuietly(notifyZkPath);
+                }
+                if (closed.get()) {
+                    // 订阅期间 cache 被关闭了，close() 可能没有看到这个 subscriber
+                    unsubscribeQuietly(notifyZkPath, subscriber);
+                    if (adaptiveJitter != null) {
+                        adaptiveJitter.closeMemberships();
+                    }
+                }
             });
         }
         if (scheduleRunDuration != null) {
-            ScheduledExecutorService scheduledExecutor = newScheduledThreadPool(1,
-                    new ThreadFactoryBuilder()
-                            .setPriority(MIN_PRIORITY)
-                            .setNameFormat("zkAutoReloadThread-" + notifyZkPaths + "-%d")
-                            .build());
-            WeakReference<ZkNotifyReloadCache> cacheReference = new WeakReference<>(this);
-            AtomicReference<Future<?>> futureReference = new AtomicReference<>();
+            // 下面的定时任务里不能持有 this 的强引用，否则 cache 永远不会被回收
+            ScheduledExecutorService capturedScheduler = this.scheduler;
+            boolean capturedOwnScheduler = this.ownScheduler;
+            Set<String> capturedNotifyZkPaths = this.notifyZkPaths;
             Runnable capturedRecycleListener = this.recycleListener;
+            WeakReference<ZkNotifyReloadCache<?>> cacheReference = new WeakReference<>(this);
+            AtomicReference<Future<?>> futureReference = new AtomicReference<>();
+            AtomicBoolean recycled = new AtomicBoolean();
 
-            Future<?> scheduleFuture = scheduleWithDynamicDelay(scheduledExecutor, scheduleRunDuration, () -> {
+            Future<?> scheduleFuture = scheduleWithDynamicDelay(capturedScheduler, scheduleRunDuration, () -> {
                 // 1、从包含this的弱引用中获取值
-                ZkNotifyReloadCache thisCache = cacheReference.get();
+                ZkNotifyReloadCache<?> thisCache = cacheReference.get();
 
                 if (thisCache == null) {
-                    if (!scheduledExecutor.isShutdown()) {
+                    if (recycled.compareAndSet(false, true)) {
                         if (futureReference.get() != null) {
                             // prevent from submitting next task
-                            futureReference.get().cancel(true);
+                            // 调度线程可能是共享的，不能 interrupt
+                            futureReference.get().cancel(false);
                         }
                         // ZkNotifyReloadCache has been recycled
-                        scheduledExecutor.shutdownNow();
-                        logger.warn("ZkNotifyReloadCache is recycled, path: {}", this.notifyZkPaths);
+                        if (capturedOwnScheduler) {
+                            capturedScheduler.shutdownNow();
+                        }
+                        logger.warn("ZkNotifyReloadCache is recycled, path: {}", capturedNotifyZkPaths);
                         if (capturedRecycleListener != null) {
                             try {
                                 capturedRecycleListener.run();
@@ -261,43 +559,334 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
                     }
                     return;
                 }
-                // 定时 rebuild
-                thisCache.doRebuild();
+                // 定时 rebuild，上一次还没跑完时会和它合并
+                thisCache.markFullRebuild();
+                thisCache.requestRebuild(thisCache.rebuildExecutor);
             });
             futureReference.set(scheduleFuture);
+            autoReloadFuture = scheduleFuture;
+            if (closed.get()) {
+                scheduleFuture.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * 触发一次 rebuild
+     * 没有 rebuild 在执行时，在 executor 上立即开始；否则合并到执行中那次之后的唯一一次后续 rebuild
+     *
+     * @return 完成时的值一定反映了本次触发之后的数据源，构建失败时以异常完成
+     */
+    private CompletableFuture<T> requestRebuild(Executor executor) {
+        if (closed.get()) {
+            return failedFuture(new IllegalStateException("cache is closed."));
+        }
+        CompletableFuture<T> promise;
+        synchronized (rebuildLock) {
+            if (inFlightRebuild != null) {
+                if (pendingRebuild == null) {
+                    pendingRebuild = new CompletableFuture<>();
+                }
+                return pendingRebuild;
+            }
+            promise = inFlightRebuild = new CompletableFuture<>();
+        }
+        startRebuild(executor, promise);
+        return promise;
+    }
+
+    private void startRebuild(Executor executor, CompletableFuture<T> promise) {
+        try {
+            executor.execute(() -> runRebuild(promise));
+        } catch (Throwable e) {
+            // executor 已经关闭之类的情况，这次以及合并进来的触发都不会再执行了
+            CompletableFuture<T> pending;
+            synchronized (rebuildLock) {
+                pending = pendingRebuild;
+                pendingRebuild = null;
+                inFlightRebuild = null;
+            }
+            promise.completeExceptionally(e);
+            if (pending != null) {
+                pending.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void runRebuild(CompletableFuture<T> promise) {
+        // 异步 factory 返回之后就释放当前线程，后续步骤在 factory 完成时继续
+        doRebuild().whenComplete((value, e) -> {
+            if (e != null) {
+                promise.completeExceptionally(e);
+            } else {
+                promise.complete(value);
+            }
+            CompletableFuture<T> next;
+            synchronized (rebuildLock) {
+                next = inFlightRebuild = pendingRebuild;
+                pendingRebuild = null;
+            }
+            if (next != null) {
+                // 后续 rebuild 总是放到后台执行，不占用触发本次 rebuild 的线程
+                startRebuild(rebuildExecutor, next);
+            }
+        });
+    }
+
+    // 调用cacheFactory获取值，factory 在任何锁之外执行
+    private CompletableFuture<T> doRebuild() {
+        long version = rebuildSequence.incrementAndGet();
+        long broadcastTimestamp = pendingBroadcastTimestamp.getAndSet(0L);
+        Versioned<T> prev = current.get();
+        T prevValue = prev == null ? null : prev.value;
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long factoryStart = System.nanoTime();
+        CompletionStage<T> stage;
+        rebuilding.set(TRUE);
+        try {
+            List<String> changes;
+            if (asyncCacheFactory != null) {
+                stage = callAsyncFactory(prevValue);
+            } else if (deltaCacheFactory != null && prevValue != null
+                    && (changes = drainChanges()) != null) {
+                if (changes == NO_CHANGE) {
+                    // 触发的变更已经被之前的一次 rebuild 处理过了
+                    result.complete(prevValue);
+                    return result;
+                }
+                stage = CompletableFuture.completedFuture(deltaCacheFactory.get(prevValue, changes));
+            } else {
+                stage = CompletableFuture.completedFuture(cacheFactory.get(prevValue));
+            }
+        } catch (Throwable e) {
+            stage = failedFuture(e);
+        } finally {
+            rebuilding.remove();
+        }
+        stage.whenComplete((newObject, e) -> {
+            rebuilding.set(TRUE);
+            try {
+                onFactoryDone(System.nanoTime() - factoryStart, e == null ? null : unwrap(e));
+                if (e != null) {
+                    e = unwrap(e);
+                    logger.error("fail to rebuild cache, remain the previous one.", e);
+                    // 本次取走的变更没有生效，下一次只能全量构建
+                    markFullRebuild();
+                    if (broadcastTimestamp > 0L) {
+                        // 这次通知还没有生效，留给下一次 rebuild 统计
+                        pendingBroadcastTimestamp.compareAndSet(0L, broadcastTimestamp);
+                    }
+                    result.completeExceptionally(e);
+                    return;
+                }
+                if (newObject != null && publish(version, prevValue, newObject)) {
+                    servingBootstrap = false;
+                    metricsListener.onPublished(version,
+                            broadcastTimestamp > 0L ? currentTimeMillis() - broadcastTimestamp : -1L);
+                    saveSnapshot(newObject);
+                }
+                Versioned<T> published = current.get();
+                result.complete(published == null ? null : published.value);
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                rebuilding.remove();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 下一次 rebuild 需要全量构建
+     */
+    private void markFullRebuild() {
+        if (deltaCacheFactory != null) {
+            synchronized (changesLock) {
+                fullRebuildPending = true;
+                pendingChanges.clear();
+            }
+        }
+    }
+
+    private void addChange(String change) {
+        if (deltaCacheFactory != null) {
+            synchronized (changesLock) {
+                if (fullRebuildPending) {
+                    return;
+                }
+                if (pendingChanges.size() >= maxPendingChanges) {
+                    logger.warn("too many pending changes:{}, fallback to full rebuild, path:{}",
+                            pendingChanges.size(), notifyZkPaths);
+                    fullRebuildPending = true;
+                    pendingChanges.clear();
+                } else {
+                    pendingChanges.add(change);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 需要全量构建时返回 {@code null}，没有需要处理的变更时返回 {@link #NO_CHANGE}
+     */
+    @Nullable
+    private List<String> drainChanges() {
+        synchronized (changesLock) {
+            if (fullRebuildPending) {
+                fullRebuildPending = false;
+                return null;
+            }
+            if (pendingChanges.isEmpty()) {
+                return NO_CHANGE;
+            }
+            List<String> changes = pendingChanges;
+            pendingChanges = new ArrayList<>();
+            return changes;
         }
     }
 
-    private void doRebuild() {
-        synchronized (ZkNotifyReloadCache.this) {
-            doRebuild0();
+    /**
+     * CAS 发布构建结果，只有版本号比当前发布值更新的结果才会生效
+     * 被替换下来的旧值、以及因为过期而没有发布的结果，都会回调 oldCleanup
+     *
+     * @param basis 本次构建时传给 factory 的上一个值，factory 原样返回它时不做清理
+     * @return 本次结果是否发布成功
+     */
+    private boolean publish(long version, @Nullable T basis, @Nonnull T newObject) {
+        Versioned<T> next = new Versioned<>(newObject, version);
+        Versioned<T> prev;
+        do {
+            prev = current.get();
+            if (prev != null && prev.version > version) {
+                // 更晚开始的构建已经发布了，本次结果过期
+                logger.debug("discard stale rebuild result, version:{}, current:{}", version, prev.version);
+                if (prev.value != newObject && basis != newObject) {
+                    oldCleanup.accept(newObject);
+                }
+                return false;
+            }
+        } while (!current.compareAndSet(prev, next));
+        if (prev != null && prev.value != newObject) {
+            // 回调 oldCleanup，将old值传入
+            cleanup(prev.value);
+        }
+        if (closed.get() && current.compareAndSet(next, null)) {
+            // 发布的同时 cache 被关闭了，close() 没有看到这个值，由这里来清理
+            oldCleanup.accept(newObject);
+            return false;
         }
+        return true;
     }
 
-    // 调用cacheFactory获取值
-    private void doRebuild0() {
-        T newObject = null;
+    /**
+     * 在 {@link #rebuildExecutor} 上把刚发布的值写入快照，不占用发布它的线程
+     * 执行时如果这个值已经被替换了就不再写，连续多次发布只会写最后一个
+     */
+    private void saveSnapshot(T value) {
+        if (snapshotStore == null) {
+            return;
+        }
         try {
-            newObject = cacheFactory.get(cachedObject);
+            rebuildExecutor.execute(() -> {
+                synchronized (snapshotLock) {
+                    Versioned<T> published = current.get();
+                    if (published == null || published.value != value) {
+                        return;
+                    }
+                    savingSnapshot = value;
+                }
+                boolean replaced;
+                try {
+                    snapshotStore.save(value);
+                } finally {
+                    synchronized (snapshotLock) {
+                        replaced = savingSnapshotReplaced;
+                        savingSnapshot = null;
+                        savingSnapshotReplaced = false;
+                    }
+                }
+                if (replaced) {
+                    oldCleanup.accept(value);
+                }
+            });
         } catch (Throwable e) {
-            logger.error("fail to rebuild cache, remain the previous one.", e);
+            // 比如 cache 已经关闭，scheduler 不再接受任务
+            logger.warn("fail to save snapshot, path:{}", notifyZkPaths, e);
         }
-        if (newObject != null) {
-            T old = cachedObject;
-            cachedObject = newObject;
-            if (oldCleanup != null && old != cachedObject) {
-                // 回调 oldCleanup，将old值传入
-                oldCleanup.accept(old);
+    }
+
+    /**
+     * 回调被替换下来的值的 oldCleanup，正在写快照时推迟到写完之后
+     */
+    private void cleanup(T value) {
+        if (snapshotStore != null) {
+            synchronized (snapshotLock) {
+                if (savingSnapshot == value) {
+                    savingSnapshotReplaced = true;
+                    return;
+                }
             }
         }
+        oldCleanup.accept(value);
     }
 
     @Override
     public void reload() {
+        broadcast(null);
+    }
+
+    /**
+     * 带上变更描述通知全局缓存更新，格式见 {@link NotifyPayload}
+     * 只有使用 {@link Builder#withDeltaCacheFactory} 的节点会增量构建，其他节点仍然全量构建
+     */
+    @Override
+    public void reload(@Nonnull String change) {
+        broadcast(checkNotNull(change));
+    }
+
+    /**
+     * 通知的写入在 zk 的后台回调里完成，不阻塞调用线程，适合在处理请求的线程里调用
+     * 返回的 future 在 zk 的事件线程上完成，不要在它的后续回调里做阻塞的操作
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<Void> reloadAsync() {
+        return broadcastAsync(null);
+    }
+
+    /**
+     * 同 {@link #reload(String)}，但是不等待通知写入完成
+     */
+    @Nonnull
+    public CompletableFuture<Void> reloadAsync(@Nonnull String change) {
+        return broadcastAsync(checkNotNull(change));
+    }
+
+    private CompletableFuture<Void> broadcastAsync(@Nullable String change) {
+        if (broadcaster == null || notifyZkPaths == null) {
+            logger.warn("no zk broadcast or notify zk path found. ignore reload.");
+            return CompletableFuture.completedFuture(null);
+        }
+        String content = NotifyPayload.encode(currentTimeMillis(), change);
+        if (notifyZkPaths.size() == 1) {
+            return broadcaster.broadcastAsync(notifyZkPaths.iterator().next(), content);
+        }
+        Map<String, String> contents = new HashMap<>();
+        notifyZkPaths.forEach(notifyZkPath -> contents.put(notifyZkPath, content));
+        return broadcaster.broadcastAllAsync(contents);
+    }
+
+    private void broadcast(@Nullable String change) {
         if (broadcaster != null && notifyZkPaths != null) {
-            String content = String.valueOf(currentTimeMillis());
-            notifyZkPaths.forEach(notifyZkPath -> broadcaster.broadcast(notifyZkPath,
-                    content));
+            String content = NotifyPayload.encode(currentTimeMillis(), change);
+            if (notifyZkPaths.size() == 1) {
+                broadcaster.broadcast(notifyZkPaths.iterator().next(), content);
+            } else {
+                // 多个 path 一次写入，ZkBroadcaster 会用一个事务完成
+                Map<String, String> contents = new HashMap<>();
+                notifyZkPaths.forEach(notifyZkPath -> contents.put(notifyZkPath, content));
+                broadcaster.broadcastAll(contents);
+            }
         } else {
             logger.warn("no zk broadcast or notify zk path found. ignore reload.");
         }
@@ -305,13 +894,213 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
 
     @Override
     public void reloadLocal() {
-        synchronized (ZkNotifyReloadCache.this) {
-            if (cachedObject != null) {
-                doRebuild0();
+        if (current.get() != null) {
+            markFullRebuild();
+            if (rebuilding.get() != null) {
+                // 在 factory 或者发布过程中调用时，等待的正是当前线程上的这次 rebuild，只能排到它后面
+                requestRebuild(rebuildExecutor);
+                return;
+            }
+            try {
+                // 没有 rebuild 在执行时直接在调用线程上构建，否则等待合并后的那次 rebuild
+                requestRebuild(directExecutor()).join();
+            } catch (CompletionException e) {
+                // 失败已经在 doRebuild 里记录过了，保持之前的值
             }
         }
     }
 
+    /**
+     * 异步更新本地缓存，和其他同时发生的 reload 触发合并执行
+     * 注意：如果本地缓存没有初始化，本方法并不会初始化并刷新本地的缓存，返回的 future 值为 {@code null}
+     *
+     * @return 完成时的值反映了本次调用之后的数据源；构建失败时以异常完成，缓存保持之前的值
+     */
+    @Nonnull
+    public CompletableFuture<T> reloadLocalAsync() {
+        if (current.get() == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        markFullRebuild();
+        return requestRebuild(rebuildExecutor);
+    }
+
+    /**
+     * 取消 zk 订阅和定时 reload，释放当前值
+     * 调度线程池和 broadcaster 只有是本 cache 自己创建的时候才会关闭；执行中的 rebuild 不会被打断，它的结果会直接被清理
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        notifySubscribers.forEach(this::unsubscribeQuietly);
+        if (adaptiveJitter != null) {
+            adaptiveJitter.closeMemberships();
+        }
+        if (ownBroadcaster) {
+            try {
+                broadcaster.close();
+            } catch (Throwable e) {
+                logger.error("fail to close broadcaster, path:{}", notifyZkPaths, e);
+            }
+        }
+        Future<?> future = autoReloadFuture;
+        if (future != null) {
+            future.cancel(false);
+        }
+        if (ownScheduler) {
+            scheduler.shutdownNow();
+        }
+        Versioned<T> last = current.getAndSet(null);
+        if (last != null) {
+            cleanup(last.value);
+        }
+        logger.info("ZkNotifyReloadCache is closed, path: {}", notifyZkPaths);
+    }
+
+    private void unsubscribeQuietly(String path, Subscriber subscriber) {
+        try {
+            broadcaster.unsubscribe(path, subscriber);
+        } catch (UnsupportedOperationException e) {
+            logger.warn("broadcaster {} does not support unsubscribe, path:{} may still be notified.",
+                    broadcaster.getClass().getName(), path);
+        } catch (Throwable e) {
+            logger.error("fail to unsubscribe path:{}", path, e);
+        }
+    }
+
+    /**
+     * 在通知路径上登记本节点，用于自适应随机等待统计节点数
+     */
+    private void joinQuietly(String path) {
+        try {
+            adaptiveJitter.addMembership(broadcaster.join(path));
+        } catch (UnsupportedOperationException e) {
+            logger.warn("broadcaster {} can not count members, adaptive random sleep counts only this one, path:{}",
+                    broadcaster.getClass().getName(), path);
+        } catch (Throwable e) {
+            logger.error("fail to join path:{}, adaptive random sleep counts only this one.", path, e);
+        }
+    }
+
+    private void onFactoryDone(long factoryNanos, @Nullable Throwable failure) {
+        if (failure == null) {
+            stats.recordSuccess(factoryNanos);
+        } else {
+            stats.recordFailure(factoryNanos, failure);
+        }
+        if (adaptiveJitter != null) {
+            adaptiveJitter.recordFactoryDuration(factoryNanos);
+        }
+        metricsListener.onRebuild(factoryNanos, failure);
+    }
+
+    /**
+     * 隔离使用方 listener 抛出的异常，避免影响通知和构建流程
+     */
+    private static final class SafeMetricsListener implements CacheMetricsListener {
+
+        private final CacheMetricsListener delegate;
+
+        SafeMetricsListener(@Nullable CacheMetricsListener delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onNotifyReceived(@Nonnull String path, long broadcastToReceiveMillis) {
+            if (delegate != null) {
+                try {
+                    delegate.onNotifyReceived(path, broadcastToReceiveMillis);
+                } catch (Throwable e) {
+                    logger.error("fail to call metrics listener", e);
+                }
+            }
+        }
+
+        @Override
+        public void onNotifyDelayed(@Nonnull String path, long randomSleepMillis) {
+            if (delegate != null) {
+                try {
+                    delegate.onNotifyDelayed(path, randomSleepMillis);
+                } catch (Throwable e) {
+                    logger.error("fail to call metrics listener", e);
+                }
+            }
+        }
+
+        @Override
+        public void onRebuild(long factoryNanos, @Nullable Throwable failure) {
+            if (delegate != null) {
+                try {
+                    delegate.onRebuild(factoryNanos, failure);
+                } catch (Throwable e) {
+                    logger.error("fail to call metrics listener", e);
+                }
+            }
+        }
+
+        @Override
+        public void onPublished(long version, long broadcastToPublishMillis) {
+            if (delegate != null) {
+                try {
+                    delegate.onPublished(version, broadcastToPublishMillis);
+                } catch (Throwable e) {
+                    logger.error("fail to call metrics listener", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 异步 factory 超过 {@link #asyncFactoryTimeout} 没有完成时本次构建按失败处理，释放 rebuild 的名额，
+     * 否则一个永远不完成的 future 会让之后所有的 rebuild 都排在它后面
+     * 超时之后才完成的结果不会再发布，直接回调 oldCleanup
+     */
+    private CompletableFuture<T> callAsyncFactory(@Nullable T prevValue) throws Throwable {
+        CompletionStage<T> stage = asyncCacheFactory.get(prevValue);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        ScheduledFuture<?> timeout = scheduler.schedule(() -> result.completeExceptionally(
+                new TimeoutException("async cache factory timeout:" + asyncFactoryTimeout)),
+                asyncFactoryTimeout.toNanos(), NANOSECONDS);
+        stage.whenComplete((newObject, e) -> {
+            timeout.cancel(false);
+            boolean completed = e == null ? result.complete(newObject) : result.completeExceptionally(e);
+            if (!completed && newObject != null && newObject != prevValue) {
+                logger.warn("discard async cache factory result completed after timeout.");
+                oldCleanup.accept(newObject);
+            }
+        });
+        return result;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        if ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+            return e.getCause();
+        }
+        return e;
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    /**
+     * 优先使用快照，其次是 bootstrap 值
+     *
+     * @return 都没有时返回 {@code null}，需要同步构建
+     */
+    @Nullable
+    private T loadBootstrap() {
+        T obj = snapshotStore == null ? null : snapshotStore.load();
+        if (obj == null && bootstrapFactory != null) {
+            obj = bootstrapFactory.get();
+        }
+        return obj;
+    }
+
     private Supplier<T> wrapTry(CacheFactory<T> supplier) {
         if (supplier == null) {
             return null;
@@ -339,23 +1128,80 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
         };
     }
 
+    private static final class Versioned<T> {
+
+        private final T value;
+        private final long version;
+
+        private Versioned(T value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+    }
+
     public static final class Builder<T> {
 
         private CacheFactoryEx<T> cacheFactory;
+        private AsyncCacheFactory<T> asyncCacheFactory;
+        private Duration asyncFactoryTimeout = DEFAULT_ASYNC_FACTORY_TIMEOUT;
+        private DeltaCacheFactory<T> deltaCacheFactory;
+        private int maxPendingChanges = DEFAULT_MAX_PENDING_CHANGES;
+        private Path snapshotFile;
+        private SnapshotCodec<T> snapshotCodec;
         private CacheFactory<T> firstAccessFailFactory;
+        private CacheFactory<T> bootstrapFactory;
         private Set<String> notifyZkPaths;
         private Consumer<T> oldCleanup;
         private LongSupplier maxRandomSleepOnNotifyReload;
+        private int adaptiveMaxConcurrentRebuilds;
+        private Duration adaptiveMaxSleep;
+        private Duration notifyDebounceWindow;
+        private Duration notifyDebounceMaxWait;
+        private boolean versionedNotify;
         private Broadcaster broadcaster;
+        private boolean ownBroadcaster;
+        private CacheMetricsListener metricsListener;
         private Supplier<Duration> scheduleRunDuration;
         @Nullable
-        private ScheduledExecutorService executor;
+        private ScheduledExecutorService scheduler;
+        private boolean ownScheduler;
+        private Executor asyncInitExecutor;
         private Runnable recycleListener;
 
+        /**
+         * 为本 cache 单独创建一个调度线程，而不使用进程内共享的调度线程池
+         * 该线程会在 cache 被回收时关闭
+         */
         @CheckReturnValue
         @Nonnull
         public Builder<T> subscribeThreadFactory(@Nonnull ThreadFactory threadFactory) {
-            this.executor = newSingleThreadScheduledExecutor(checkNotNull(threadFactory));
+            this.scheduler = newSingleThreadScheduledExecutor(checkNotNull(threadFactory));
+            this.ownScheduler = true;
+            return this;
+        }
+
+        /**
+         * 指定定时 reload 和通知 reload 使用的调度线程池，可以在多个 cache 之间共享
+         * 不指定时使用进程内共享的调度线程池，线程数见 {@code zknotify.cache.reloadThreads}
+         *
+         * 同一个 cache 的 rebuild 总是串行、按提交顺序执行；本线程池的生命周期由调用方管理
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder<T> withReloadScheduler(@Nonnull ScheduledExecutorService scheduler) {
+            this.scheduler = checkNotNull(scheduler);
+            this.ownScheduler = false;
+            return this;
+        }
+
+        /**
+         * 指定 {@link ZkNotifyReloadCache#getAsync()} 执行第一次初始化的线程池，生命周期由调用方管理
+         * 不指定时每次初始化使用一个新的 daemon 线程，不占用 reload 的调度线程
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder<T> withAsyncInitExecutor(@Nonnull Executor asyncInitExecutor) {
+            this.asyncInitExecutor = checkNotNull(asyncInitExecutor);
             return this;
         }
 
@@ -376,6 +1222,7 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
         @Nonnull
         public Builder<T> withZkBroadcaster(ZkBroadcaster zkBroadcaster) {
             this.broadcaster = zkBroadcaster;
+            this.ownBroadcaster = false;
             return this;
         }
 
@@ -383,6 +1230,7 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
         @Nonnull
         public Builder<T> withBroadcaster(@Nonnull Broadcaster broadcaster) {
             this.broadcaster = requireNonNull(broadcaster);
+            this.ownBroadcaster = false;
             return this;
         }
 
@@ -397,6 +1245,7 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
         public Builder<T> withCuratorFactory(Supplier<CuratorFramework> curatorFactory,
                                              String broadcastPrefix) {
             this.broadcaster = new ZkBroadcaster(curatorFactory, broadcastPrefix);
+            this.ownBroadcaster = true;
             return this;
         }
 
@@ -404,6 +1253,8 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
         @CheckReturnValue
         public Builder<T> withCacheFactory(CacheFactory<T> cacheFactory) {
             this.cacheFactory = (prev) -> cacheFactory.get();
+            this.asyncCacheFactory = null;
+            this.deltaCacheFactory = null;
             return this;
         }
 
@@ -411,6 +1262,57 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
         @CheckReturnValue
         public Builder<T> withCacheFactoryEx(CacheFactoryEx<T> cacheFactoryEx) {
             this.cacheFactory = cacheFactoryEx;
+            this.asyncCacheFactory = null;
+            this.deltaCacheFactory = null;
+            return this;
+        }
+
+        /**
+         * 使用异步的 factory 构建缓存，rebuild 期间不占用调度线程
+         * 第一次访问 {@link ZkNotifyReloadCache#get()} 时仍然会等待构建完成
+         */
+        @Nonnull
+        @CheckReturnValue
+        public Builder<T> withAsyncCacheFactory(@Nonnull AsyncCacheFactory<T> asyncCacheFactory) {
+            this.asyncCacheFactory = checkNotNull(asyncCacheFactory);
+            this.cacheFactory = null;
+            this.deltaCacheFactory = null;
+            return this;
+        }
+
+        /**
+         * 异步 factory 返回的 future 超过 {@code timeout} 没有完成时，本次构建按失败处理，保留之前的值，默认 10 分钟
+         * 超时的 future 被放弃而不是取消，下一次构建不会等它完成，它之后完成的结果会直接交给 oldCleanup
+         * 同步的 factory 运行在构建线程上，不受这个超时限制
+         */
+        @Nonnull
+        @CheckReturnValue
+        public Builder<T> withAsyncFactoryTimeout(@Nonnull Duration timeout) {
+            checkArgument(!checkNotNull(timeout).isNegative() && !timeout.isZero(), "timeout must be positive.");
+            this.asyncFactoryTimeout = timeout;
+            return this;
+        }
+
+        /**
+         * 使用增量构建的 factory，通过 {@link ZkNotifyReloadCache#reload(String)} 通知的变更会累积起来交给下一次构建
+         */
+        @Nonnull
+        @CheckReturnValue
+        public Builder<T> withDeltaCacheFactory(@Nonnull DeltaCacheFactory<T> deltaCacheFactory) {
+            this.deltaCacheFactory = checkNotNull(deltaCacheFactory);
+            this.cacheFactory = prev -> deltaCacheFactory.get(prev, emptyList());
+            this.asyncCacheFactory = null;
+            return this;
+        }
+
+        /**
+         * 两次构建之间最多积压的变更数量，超过之后下一次退化为全量构建，默认 1000
+         */
+        @Nonnull
+        @CheckReturnValue
+        public Builder<T> withMaxPendingChanges(int maxPendingChanges) {
+            checkArgument(maxPendingChanges > 0, "maxPendingChanges must be positive.");
+            this.maxPendingChanges = maxPendingChanges;
             return this;
         }
 
@@ -430,6 +1332,29 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
             return this;
         }
 
+        @CheckReturnValue
+        @Nonnull
+        public Builder<T> bootstrapObject(T obj) {
+            if (obj != null) {
+                this.bootstrapFactory = () -> obj;
+            }
+            return this;
+        }
+
+        /**
+         * 第一次 {@link ZkNotifyReloadCache#get()} 时不等待 factory，直接返回这里提供的值（比如随应用打包的一份数据），
+         * 同时在后台全量构建一次，成功之后替换掉它，之前 {@link ZkNotifyReloadCache#isServingBootstrap()} 返回 {@code true}
+         * 后台构建失败时保留 bootstrap 值，直到下一次定时或者通知触发的构建成功，所以建议配合 enableAutoReload 使用
+         *
+         * 本方法抛异常或者返回 {@code null} 时照常同步构建；同时配置了 {@link #withSnapshot} 时优先使用快照
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder<T> bootstrapFactory(CacheFactory<T> bootstrapFactory) {
+            this.bootstrapFactory = bootstrapFactory;
+            return this;
+        }
+
         @CheckReturnValue
         @Nonnull
         public Builder<T> withNotifyZkPath(String notifyZkPath) {
@@ -451,6 +1376,7 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
         @Nonnull
         public Builder<T> withMaxRandomSleepOnNotifyReload(long maxRandomSleepOnNotifyReloadInMs) {
             this.maxRandomSleepOnNotifyReload = () -> maxRandomSleepOnNotifyReloadInMs;
+            this.adaptiveMaxSleep = null;
             return this;
         }
 
@@ -459,6 +1385,7 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
         public Builder<T>
         withMaxRandomSleepOnNotifyReload(LongSupplier maxRandomSleepOnNotifyReloadInMs) {
             this.maxRandomSleepOnNotifyReload = maxRandomSleepOnNotifyReloadInMs;
+            this.adaptiveMaxSleep = null;
             return this;
         }
 
@@ -469,6 +1396,78 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
             return withMaxRandomSleepOnNotifyReload(unit.toMillis(maxRandomSleepOnNotify));
         }
 
+        /**
+         * 自适应的通知随机等待：随机等待的上限 = 存活节点数 × factory 平均耗时 / {@code maxConcurrentRebuilds}，
+         * 不超过 {@code maxSleep}，这样数据源平均最多同时承受 {@code maxConcurrentRebuilds} 个节点的构建，各节点又不会多等
+         *
+         * 存活节点数通过 {@link Broadcaster#join} 统计，每个 cache 算一个节点，同一进程里的多个 cache 分别计算，
+         * {@link ZkBroadcaster} 会在通知节点之外为每个 cache 注册临时节点；
+         * broadcaster 不支持时只按本节点计算。第一次构建之前没有耗时数据，不会随机等待
+         * 和 {@link #withMaxRandomSleepOnNotifyReload} 互相覆盖，以最后一次设置为准
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder<T> withAdaptiveRandomSleepOnNotifyReload(int maxConcurrentRebuilds,
+                @Nonnull Duration maxSleep) {
+            checkArgument(maxConcurrentRebuilds > 0, "maxConcurrentRebuilds must be positive.");
+            checkArgument(!checkNotNull(maxSleep).isNegative(), "maxSleep must not be negative.");
+            this.adaptiveMaxConcurrentRebuilds = maxConcurrentRebuilds;
+            this.adaptiveMaxSleep = maxSleep;
+            this.maxRandomSleepOnNotifyReload = null;
+            return this;
+        }
+
+        /**
+         * 通知防抖：一串连续的通知在最后一次之后安静了 {@code window} 才触发一次 rebuild（之后仍然有随机等待），
+         * 从第一次通知算起最多等待 {@code maxWait}
+         * rebuild 开始之后收到的通知会触发新的一次，所以最后一次通知一定会生效
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder<T> withNotifyDebounce(@Nonnull Duration window, @Nonnull Duration maxWait) {
+            checkArgument(!checkNotNull(window).isNegative() && !window.isZero(), "window must be positive.");
+            checkArgument(checkNotNull(maxWait).compareTo(window) >= 0, "maxWait must not be less than window.");
+            this.notifyDebounceWindow = window;
+            this.notifyDebounceMaxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * 每次构建成功发布之后，把新值编码写入快照文件（通过内存映射写入，先写临时文件再原子替换）
+         * 第一次 {@link ZkNotifyReloadCache#get()} 时如果有可用的快照，直接返回快照里的值而不调用 factory，
+         * 同时在后台全量构建一次，构建成功之前 {@link ZkNotifyReloadCache#isServingBootstrap()} 返回 {@code true}
+         * 快照不存在、损坏或者解码失败时照常构建
+         *
+         * 写快照在发布之后放到后台（本 cache 串行执行 rebuild 的线程）执行，不占用构建和读取的线程；
+         * 还没写完就被替换或者 cache 被关闭时，这次快照可能不会写入
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder<T> withSnapshot(@Nonnull Path file, @Nonnull SnapshotCodec<T> codec) {
+            this.snapshotFile = checkNotNull(file);
+            this.snapshotCodec = checkNotNull(codec);
+            return this;
+        }
+
+        /**
+         * 按通知的版本号去重：只跳过版本号和内容都与上一次处理的通知相同的通知（比如 zk 重连之后重新读到的同一次写入）
+         * 默认按通知内容去重，同一毫秒内的两次 reload 内容相同会被合并，内容里的时间戳也受各机器时钟偏差影响；
+         * 版本号由 zk 分配，不依赖本机时钟
+         *
+         * {@link ZkBroadcaster} 的版本号是通知节点的数据版本而不是 mzxid：数据版本每次写入正好加一，
+         * 才能发现被合并或者丢弃的通知，mzxid 在整个集群内递增，中间夹着其他节点的写入，没法判断是否跳号
+         * 代价是通知节点被删除重建之后数据版本从头开始：回调按写入顺序执行，所以版本号变小、或者版本号相同而内容不同时
+         * 认为节点被重建了，不会跳过，也不会把它当成重复通知
+         * 无论是否开启，版本号不连续时（中间的通知被合并或者丢弃、节点被重建）下一次 rebuild 都会退化为全量构建
+         * broadcaster 不提供版本号的通知（比如节点被删除）仍然按内容去重
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder<T> withVersionedNotify() {
+            this.versionedNotify = true;
+            return this;
+        }
+
         /**
          * Set a listener which would be called when cached is gced and a resource release action is performed.
          */
@@ -479,6 +1478,16 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
             return this;
         }
 
+        /**
+         * 接收通知延迟、随机等待、factory 耗时和端到端生效耗时，默认实现见 {@link com.github.phantomthief.localcache.HistogramMetricsListener}
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder<T> withMetricsListener(@Nonnull CacheMetricsListener metricsListener) {
+            this.metricsListener = requireNonNull(metricsListener);
+            return this;
+        }
+
         @Nonnull
         public ZkNotifyReloadCache<T> build() {
             ensure();
@@ -486,12 +1495,14 @@ public class ZkNotifyReloadCache<T> implements ReloadableCache<T> {
         }
 
         private void ensure() {
-            checkNotNull(cacheFactory, "no cache factory.");
+            if (asyncCacheFactory == null) {
+                checkNotNull(cacheFactory, "no cache factory.");
+            }
             if (notifyZkPaths != null && !notifyZkPaths.isEmpty()) {
                 checkNotNull(broadcaster, "no broadcaster.");
-                if (executor == null) {
-                    executor = newSingleThreadScheduledExecutor();
-                }
+            }
+            if (scheduler == null) {
+                scheduler = ReloadSchedulers.shared();
             }
         }
     }
@@ -0,0 +1,47 @@
+package com.github.phantomthief.zookeeper.broadcast;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * The default executor delivering notifications to subscribers, shared by all broadcasters in the process.
+ *
+ * Its threads are dedicated to subscriber callbacks, so slow callbacks neither block the zk event thread nor
+ * compete with {@link java.util.concurrent.ForkJoinPool#commonPool()}. The queue never holds more than one
+ * task per subscriber, see {@link SubscriberDispatcher}. Thread count can be changed by system property
+ * {@code zknotify.broadcast.dispatchThreads}.
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+final class BroadcastDispatchers {
+
+    static final String THREADS_PROPERTY = "zknotify.broadcast.dispatchThreads";
+
+    private BroadcastDispatchers() {
+        throw new UnsupportedOperationException();
+    }
+
+    static ExecutorService shared() {
+        return LazyHolder.INSTANCE;
+    }
+
+    private static final class LazyHolder {
+
+        private static final ExecutorService INSTANCE = create();
+
+        private static ExecutorService create() {
+            int cpus = Runtime.getRuntime().availableProcessors();
+            int threads = Integer.getInteger(THREADS_PROPERTY, Math.max(2, Math.min(cpus, 8)));
+            return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("zkBroadcastDispatcher-%d")
+                    .build());
+        }
+    }
+}
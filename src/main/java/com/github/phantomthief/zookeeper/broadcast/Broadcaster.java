@@ -1,13 +1,16 @@
 package com.github.phantomthief.zookeeper.broadcast;
 
+import java.io.Closeable;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 import javax.annotation.Nonnull;
 
 /**
  * A Interface to notify others, or receive notifies, at specified path.
  */
-public interface Broadcaster {
+public interface Broadcaster extends Closeable {
 
 
     /**
@@ -27,21 +30,123 @@ public interface Broadcaster {
      */
     void subscribe(@Nonnull String path, @Nonnull Subscriber subscriber);
 
+    /**
+     * Stop notifying the subscriber on the path, and release the watch on the path after its last subscriber left.
+     * The subscriber may still get a notification which was already in flight.
+     *
+     * @return {@code false} if the subscriber was not subscribed on the path
+     * @throws UnsupportedOperationException if the implementation can not unsubscribe
+     */
+    default boolean unsubscribe(@Nonnull String path, @Nonnull Subscriber subscriber) {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * notify Subscribers watched on the path, with content
      */
     void broadcast(String path, String content);
 
+    /**
+     * notify Subscribers watched on each path of the map, with the mapped content.
+     * Implementations may write all paths at once; the default one broadcasts path by path.
+     */
+    default void broadcastAll(@Nonnull Map<String, String> contents) {
+        contents.forEach(this::broadcast);
+    }
+
+    /**
+     * Same as {@link #broadcast(String, String)}, but returns without waiting for the write.
+     * The default implementation writes on the caller thread and returns a completed future.
+     *
+     * @return completes when the content is written, or exceptionally if the write failed
+     */
+    @Nonnull
+    default CompletableFuture<Void> broadcastAsync(@Nonnull String path, @Nonnull String content) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            broadcast(path, content);
+            future.complete(null);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Same as {@link #broadcastAll(Map)}, but returns without waiting for the write.
+     * The default implementation broadcasts every path with {@link #broadcastAsync(String, String)}.
+     */
+    @Nonnull
+    default CompletableFuture<Void> broadcastAllAsync(@Nonnull Map<String, String> contents) {
+        return CompletableFuture.allOf(contents.entrySet().stream()
+                .map(entry -> broadcastAsync(entry.getKey(), entry.getValue()))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Count a live member on the path, until the returned membership is closed.
+     * Every join is one member, also several joins of the same process, since each of them stands for a cache
+     * rebuilding on a notify of the path. Members of all processes sharing the same backend are counted.
+     *
+     * @throws UnsupportedOperationException if the implementation can not count members
+     */
+    @Nonnull
+    default Membership join(@Nonnull String path) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Release all watches and subscribers. Nothing would be notified after closed.
+     */
+    @Override
+    default void close() {
+    }
+
+    /**
+     * A membership on a path, returned by {@link #join(String)}.
+     */
+    interface Membership extends Closeable {
+
+        /**
+         * @return live members on the path including this one, at least 1. It may lag behind joins and leaves.
+         */
+        int size();
+
+        /**
+         * Leave the path. Closing again has no effect.
+         */
+        @Override
+        void close();
+    }
+
     /**
      * Interface for Broadcaster subscriber.
      */
     interface Subscriber {
 
+        /**
+         * The version of a notification whose broadcaster does not version contents, or of a removed path.
+         */
+        long NO_VERSION = -1L;
+
         /**
          * Called when been notified.
          *
          * @param content the current content of subscribed path
          */
         void onChanged(String content);
+
+        /**
+         * Called when been notified, with the version of the content.
+         * A version counts the writes of its path: every broadcast on the path increments it by one, so a jump of
+         * more than one means the notifications in between were conflated or dropped, the same version again is a
+         * duplicate, and a smaller version means the path was removed and written again.
+         * The default implementation ignores the version and calls {@link #onChanged(String)}.
+         *
+         * @param version {@link #NO_VERSION} if unknown
+         */
+        default void onChanged(String content, long version) {
+            onChanged(content);
+        }
     }
 }
@@ -0,0 +1,259 @@
+package com.github.phantomthief.zookeeper.broadcast;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A {@link Broadcaster} writing to and listening on several broadcasters at once, e.g. a fast but lossy
+ * {@link MulticastBroadcaster} together with a durable {@link ZkBroadcaster}.
+ *
+ * Every broadcast goes to all channels. A subscriber is subscribed on all channels, and a content already
+ * delivered to it by one channel is dropped when another channel delivers it again, so it sees each change once,
+ * from whichever channel is the fastest. Contents are compared as a whole, so they should identify the change,
+ * as the timestamped contents written by {@link com.github.phantomthief.localcache.impl.ZkNotifyReloadCache} do.
+ * Only the last 16 contents delivered to a subscriber are remembered: a content delivered again after 16 other
+ * contents is not recognized and reaches the subscriber twice, while a content broadcast again on purpose within
+ * that window is dropped. So every broadcast should carry a distinct content.
+ * Versions of different channels are not comparable, subscribers always get {@link Subscriber#NO_VERSION},
+ * so they can not tell lost notifications, see {@link com.github.phantomthief.localcache.DeltaCacheFactory}.
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+public class CompositeBroadcaster implements Broadcaster {
+
+    private static final Logger logger = getLogger(CompositeBroadcaster.class);
+
+    /**
+     * how many recent contents are remembered per subscriber, enough to cover reordering between channels
+     */
+    private static final int RECENT_CONTENTS = 16;
+
+    private final List<Broadcaster> broadcasters;
+    private final ConcurrentMap<String, ConcurrentMap<Subscriber, DedupeSubscriber>> subscribers =
+            new ConcurrentHashMap<>();
+
+    public CompositeBroadcaster(@Nonnull Broadcaster... broadcasters) {
+        this(Arrays.asList(broadcasters));
+    }
+
+    public CompositeBroadcaster(@Nonnull List<? extends Broadcaster> broadcasters) {
+        checkArgument(!checkNotNull(broadcasters).isEmpty(), "no broadcaster.");
+        this.broadcasters = ImmutableList.copyOf(broadcasters);
+    }
+
+    /**
+     * Subscribe on every channel, or on none: if a channel fails, the channels already subscribed are rolled back
+     * and the failure is thrown.
+     */
+    @Override
+    public void subscribe(@Nonnull String path, @Nonnull Subscriber subscriber) {
+        checkNotNull(path);
+        checkNotNull(subscriber);
+        DedupeSubscriber created = new DedupeSubscriber(subscriber);
+        DedupeSubscriber[] registered = new DedupeSubscriber[1];
+        subscribers.compute(path, (p, pathSubscribers) -> {
+            ConcurrentMap<Subscriber, DedupeSubscriber> map = pathSubscribers != null ? pathSubscribers
+                                                                                      : new ConcurrentHashMap<>();
+            registered[0] = map.putIfAbsent(subscriber, created);
+            return map;
+        });
+        DedupeSubscriber existing = registered[0];
+        // subscribing again is a no-op on every channel
+        DedupeSubscriber dedupeSubscriber = existing != null ? existing : created;
+        int subscribed = 0;
+        try {
+            for (Broadcaster broadcaster : broadcasters) {
+                broadcaster.subscribe(path, dedupeSubscriber);
+                subscribed++;
+            }
+        } catch (Throwable e) {
+            if (existing == null) {
+                for (Broadcaster broadcaster : broadcasters.subList(0, subscribed)) {
+                    try {
+                        broadcaster.unsubscribe(path, dedupeSubscriber);
+                    } catch (Throwable e1) {
+                        e.addSuppressed(e1);
+                    }
+                }
+                remove(path, subscriber, dedupeSubscriber);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean unsubscribe(@Nonnull String path, @Nonnull Subscriber subscriber) {
+        checkNotNull(path);
+        checkNotNull(subscriber);
+        DedupeSubscriber dedupeSubscriber = remove(path, subscriber, null);
+        if (dedupeSubscriber == null) {
+            return false;
+        }
+        for (Broadcaster broadcaster : broadcasters) {
+            broadcaster.unsubscribe(path, dedupeSubscriber);
+        }
+        return true;
+    }
+
+    /**
+     * Write to every channel, even if some of them failed.
+     *
+     * @throws RuntimeException the first failure, with the others suppressed, if any channel failed
+     */
+    @Override
+    public void broadcast(String path, String content) {
+        forEachBroadcaster(broadcaster -> broadcaster.broadcast(path, content));
+    }
+
+    @Override
+    public void broadcastAll(@Nonnull Map<String, String> contents) {
+        forEachBroadcaster(broadcaster -> broadcaster.broadcastAll(contents));
+    }
+
+    /**
+     * @return completes when all channels are written, or exceptionally if any of them failed
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<Void> broadcastAsync(@Nonnull String path, @Nonnull String content) {
+        return CompletableFuture.allOf(broadcasters.stream()
+                .map(broadcaster -> broadcaster.broadcastAsync(path, content))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<Void> broadcastAllAsync(@Nonnull Map<String, String> contents) {
+        return CompletableFuture.allOf(broadcasters.stream()
+                .map(broadcaster -> broadcaster.broadcastAllAsync(contents))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Join on the first channel able to count members, e.g. the {@link ZkBroadcaster}.
+     */
+    @Nonnull
+    @Override
+    public Membership join(@Nonnull String path) {
+        checkNotNull(path);
+        for (Broadcaster broadcaster : broadcasters) {
+            try {
+                return broadcaster.join(path);
+            } catch (UnsupportedOperationException e) {
+                // try the next channel
+            }
+        }
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Close all channels.
+     */
+    @Override
+    public void close() {
+        subscribers.clear();
+        for (Broadcaster broadcaster : broadcasters) {
+            try {
+                broadcaster.close();
+            } catch (Throwable e) {
+                logger.warn("fail to close {}", broadcaster, e);
+            }
+        }
+    }
+
+    /**
+     * The map of a path is dropped with its last subscriber, inside the map lock, so a concurrent subscribe never
+     * registers into a dropped map.
+     *
+     * @param expected remove only this one, {@code null} for any
+     * @return the removed one, {@code null} if nothing removed
+     */
+    @Nullable
+    private DedupeSubscriber remove(String path, Subscriber subscriber, @Nullable DedupeSubscriber expected) {
+        DedupeSubscriber[] removed = new DedupeSubscriber[1];
+        subscribers.computeIfPresent(path, (p, pathSubscribers) -> {
+            DedupeSubscriber current = pathSubscribers.get(subscriber);
+            if (current != null && (expected == null || current == expected)) {
+                pathSubscribers.remove(subscriber);
+                removed[0] = current;
+            }
+            return pathSubscribers.isEmpty() ? null : pathSubscribers;
+        });
+        return removed[0];
+    }
+
+    private void forEachBroadcaster(Consumer<Broadcaster> action) {
+        Throwable failure = null;
+        for (Broadcaster broadcaster : broadcasters) {
+            try {
+                action.accept(broadcaster);
+            } catch (Throwable e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throwIfUnchecked(failure);
+            throw new RuntimeException(failure);
+        }
+    }
+
+    /**
+     * One per subscriber and path, shared by all channels.
+     */
+    private static final class DedupeSubscriber implements Subscriber {
+
+        private final Subscriber subscriber;
+        @GuardedBy("this")
+        private final String[] recentContents = new String[RECENT_CONTENTS];
+        @GuardedBy("this")
+        private int next;
+
+        private DedupeSubscriber(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * Channels call back on their own threads, the lock keeps callbacks of the subscriber one at a time.
+         */
+        @Override
+        public synchronized void onChanged(String content) {
+            for (String recent : recentContents) {
+                if (Objects.equals(recent, content)) {
+                    return;
+                }
+            }
+            recentContents[next] = content;
+            next = (next + 1) % RECENT_CONTENTS;
+            subscriber.onChanged(content, NO_VERSION);
+        }
+
+        @Override
+        public void onChanged(String content, long version) {
+            onChanged(content);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.phantomthief.zookeeper.broadcast;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A snapshot of notification dispatching metrics of a broadcaster.
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+public final class DispatchStats {
+
+    private final long dispatched;
+    private final long conflated;
+    private final long callerRuns;
+    private final Duration totalLag;
+    private final Duration maxLag;
+
+    private DispatchStats(long dispatched, long conflated, long callerRuns, Duration totalLag,
+            Duration maxLag) {
+        this.dispatched = dispatched;
+        this.conflated = conflated;
+        this.callerRuns = callerRuns;
+        this.totalLag = totalLag;
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * number of subscriber callbacks invoked
+     */
+    public long getDispatched() {
+        return dispatched;
+    }
+
+    /**
+     * number of notifications dropped before their subscriber got to run: replaced by a newer one on a conflating
+     * channel like {@link ZkBroadcaster}, or the oldest waiting one when the queue of a subscriber is full
+     */
+    public long getConflated() {
+        return conflated;
+    }
+
+    /**
+     * number of times the dispatch executor rejected a task and the callback ran on the notifying thread
+     */
+    public long getCallerRuns() {
+        return callerRuns;
+    }
+
+    /**
+     * average time from a notification being received to its subscriber callback starting
+     */
+    public Duration getAverageLag() {
+        return dispatched == 0 ? Duration.ZERO : totalLag.dividedBy(dispatched);
+    }
+
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    @Override
+    public String toString() {
+        return "DispatchStats{dispatched=" + dispatched + ", conflated=" + conflated + ", callerRuns="
+                + callerRuns + ", averageLag=" + getAverageLag() + ", maxLag=" + maxLag + '}';
+    }
+
+    static final class Recorder {
+
+        private final LongAdder dispatched = new LongAdder();
+        private final LongAdder conflated = new LongAdder();
+        private final LongAdder callerRuns = new LongAdder();
+        private final LongAdder totalLagNanos = new LongAdder();
+        private final LongAccumulator maxLagNanos = new LongAccumulator(Math::max, 0L);
+
+        void recordDispatch(long lagNanos) {
+            dispatched.increment();
+            totalLagNanos.add(lagNanos);
+            maxLagNanos.accumulate(lagNanos);
+        }
+
+        void recordConflated() {
+            conflated.increment();
+        }
+
+        void recordCallerRuns() {
+            callerRuns.increment();
+        }
+
+        DispatchStats snapshot() {
+            return new DispatchStats(dispatched.sum(), conflated.sum(), callerRuns.sum(),
+                    Duration.ofNanos(totalLagNanos.sum()), Duration.ofNanos(maxLagNanos.get()));
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.github.phantomthief.zookeeper.broadcast;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Splitter;
+import com.google.common.escape.Escaper;
+import com.google.common.net.UrlEscapers;
+
+/**
+ * A {@link Broadcaster} over a directory of notify files, watched by a {@link WatchService}.
+ *
+ * Every path maps to one file directly under the directory, named by the path without the leading slash and
+ * escaped as a URL path segment, e.g. {@code /a/b} maps to file {@code a%2Fb}, so {@code /a} and {@code /a/b}
+ * never conflict. The content of a path is the file's content.
+ * Processes sharing the directory (on one host, or on a shared file system whose watch service reports remote
+ * changes) notify each other. Broadcasting writes a temporary file and renames it over the notify file,
+ * so subscribers never read a partial content. Files written by other tools are dispatched as well,
+ * and a deleted file is dispatched as an empty content, the same as a removed zk node.
+ *
+ * Only changes after subscribing are dispatched, each reported change in order, a subscriber falling more than
+ * 1024 changes behind loses the oldest ones. One daemon thread per broadcaster watches the directory
+ * until {@link #close()}. Watch services polling the file system (e.g. on macOS) may take
+ * seconds to report a change.
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+public class FileWatchBroadcaster implements Broadcaster {
+
+    private static final Logger logger = getLogger(FileWatchBroadcaster.class);
+
+    private static final CharMatcher SLASH = CharMatcher.is('/');
+    private static final Splitter PATH_SPLITTER = Splitter.on('/');
+    private static final Escaper FILE_NAME_ESCAPER = UrlEscapers.urlPathSegmentEscaper();
+
+    private final Path directory;
+    private final SubscriberRegistry subscribers;
+    private final WatchService watchService;
+    private volatile boolean closed;
+
+    /**
+     * notifications are delivered on {@link BroadcastDispatchers#shared()}
+     */
+    public FileWatchBroadcaster(@Nonnull Path directory) {
+        this(directory, BroadcastDispatchers.shared());
+    }
+
+    public FileWatchBroadcaster(@Nonnull Path directory, @Nonnull Executor dispatchExecutor) {
+        this.directory = checkNotNull(directory).toAbsolutePath().normalize();
+        this.subscribers = SubscriberRegistry.queued(checkNotNull(dispatchExecutor));
+        try {
+            Files.createDirectories(this.directory);
+            this.watchService = this.directory.getFileSystem().newWatchService();
+            this.directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Thread watcher = new Thread(this::watch, "fileWatchBroadcaster-" + this.directory);
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @Override
+    public void subscribe(@Nonnull String path, @Nonnull Subscriber subscriber) {
+        checkNotNull(path);
+        checkNotNull(subscriber);
+        checkState(!closed, "broadcaster is closed.");
+        subscribers.add(resolve(path).toString(), subscriber);
+    }
+
+    @Override
+    public boolean unsubscribe(@Nonnull String path, @Nonnull Subscriber subscriber) {
+        checkNotNull(path);
+        checkNotNull(subscriber);
+        return subscribers.remove(resolve(path).toString(), subscriber);
+    }
+
+    @Override
+    public void broadcast(String path, String content) {
+        checkNotNull(content);
+        Path file = resolve(path);
+        try {
+            Path temp = Files.createTempFile(directory, "." + file.getFileName(), ".tmp");
+            try {
+                Files.write(temp, content.getBytes(UTF_8));
+                Files.move(temp, file, ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stop the watching thread and drop all subscribers. Notify files are left as they are.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        subscribers.clear();
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn("fail to close watch service of {}", directory, e);
+        }
+    }
+
+    /**
+     * metrics of delivering notifications to subscribers, accumulated since this broadcaster was created
+     */
+    @Nonnull
+    public DispatchStats getDispatchStats() {
+        return subscribers.stats();
+    }
+
+    /**
+     * Paths are checked the same as zk does: no empty, {@code .} or {@code ..} segment.
+     */
+    private Path resolve(String path) {
+        checkNotNull(path);
+        String relativePath = SLASH.trimLeadingFrom(path);
+        for (String segment : PATH_SPLITTER.split(relativePath)) {
+            checkArgument(!segment.isEmpty() && !segment.equals(".") && !segment.equals(".."),
+                    "invalid path:%s", path);
+        }
+        return directory.resolve(FILE_NAME_ESCAPER.escape(relativePath));
+    }
+
+    private void watch() {
+        while (!closed) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (ClosedWatchServiceException e) {
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    // events were lost, notify every subscribed file
+                    for (String realPath : subscribers.paths()) {
+                        dispatch(Paths.get(realPath));
+                    }
+                } else {
+                    dispatch(directory.resolve((Path) event.context()));
+                }
+            }
+            if (!key.reset()) {
+                logger.warn("notify directory {} is no longer watched.", directory);
+                return;
+            }
+        }
+    }
+
+    private void dispatch(Path file) {
+        String realPath = file.toString();
+        if (!subscribers.hasSubscribers(realPath)) {
+            return;
+        }
+        String content;
+        try {
+            content = new String(Files.readAllBytes(file), UTF_8);
+        } catch (NoSuchFileException e) {
+            content = "";
+        } catch (Throwable e) {
+            logger.warn("fail to read notify file {}", file, e);
+            return;
+        }
+        subscribers.dispatch(realPath, content, Subscriber.NO_VERSION);
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.phantomthief.zookeeper.broadcast;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link Broadcaster} inside the current JVM, for single-host deployments and tests.
+ *
+ * Broadcasting hands the content to the subscribers' dispatchers directly, without any lock or I/O.
+ * Nothing is persisted: a subscriber only sees contents broadcast after it subscribed.
+ * Every content is delivered in order, a subscriber falling more than 1024 contents behind loses the oldest ones.
+ * Versions count the broadcasts of each path.
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+public class LocalBroadcaster implements Broadcaster {
+
+    private final SubscriberRegistry subscribers;
+    private final ConcurrentMap<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> members = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * notifications are delivered on {@link BroadcastDispatchers#shared()}
+     */
+    public LocalBroadcaster() {
+        this(BroadcastDispatchers.shared());
+    }
+
+    public LocalBroadcaster(@Nonnull Executor dispatchExecutor) {
+        this.subscribers = SubscriberRegistry.queued(checkNotNull(dispatchExecutor));
+    }
+
+    @Override
+    public void subscribe(@Nonnull String path, @Nonnull Subscriber subscriber) {
+        checkNotNull(path);
+        checkNotNull(subscriber);
+        checkState(!closed, "broadcaster is closed.");
+        subscribers.add(path, subscriber);
+    }
+
+    @Override
+    public boolean unsubscribe(@Nonnull String path, @Nonnull Subscriber subscriber) {
+        checkNotNull(path);
+        checkNotNull(subscriber);
+        return subscribers.remove(path, subscriber);
+    }
+
+    @Override
+    public void broadcast(String path, String content) {
+        checkNotNull(path);
+        checkNotNull(content);
+        checkState(!closed, "broadcaster is closed.");
+        subscribers.dispatch(path, content,
+                sequences.computeIfAbsent(path, p -> new AtomicLong()).incrementAndGet());
+    }
+
+    /**
+     * Members are counted inside this broadcaster only.
+     */
+    @Nonnull
+    @Override
+    public Membership join(@Nonnull String path) {
+        checkNotNull(path);
+        AtomicInteger counter = members.computeIfAbsent(path, p -> new AtomicInteger());
+        counter.incrementAndGet();
+        AtomicBoolean left = new AtomicBoolean();
+        return new Membership() {
+
+            @Override
+            public int size() {
+                return Math.max(1, counter.get());
+            }
+
+            @Override
+            public void close() {
+                if (left.compareAndSet(false, true)) {
+                    counter.decrementAndGet();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        subscribers.clear();
+    }
+
+    /**
+     * metrics of delivering notifications to subscribers, accumulated since this broadcaster was created
+     */
+    @Nonnull
+    public DispatchStats getDispatchStats() {
+        return subscribers.stats();
+    }
+}
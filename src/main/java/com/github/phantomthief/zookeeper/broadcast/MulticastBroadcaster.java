@@ -0,0 +1,283 @@
+package com.github.phantomthief.zookeeper.broadcast;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.net.StandardSocketOptions.IP_MULTICAST_IF;
+import static java.net.StandardSocketOptions.IP_MULTICAST_LOOP;
+import static java.net.StandardSocketOptions.IP_MULTICAST_TTL;
+import static java.net.StandardSocketOptions.SO_REUSEADDR;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Collections;
+import java.util.concurrent.Executor;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * A {@link Broadcaster} over UDP multicast, for hosts in one network segment.
+ *
+ * A broadcast is one datagram to the group: it takes no round trip and no server, but it is best effort.
+ * Datagrams can be lost, reordered or duplicated, nothing is persisted, and any host able to reach the group can
+ * send notifications. Pair it with a durable broadcaster if a lost notify is not acceptable.
+ * Broadcasters in the same process and host receive their own datagrams, so they notify each other too.
+ *
+ * Only datagrams written by this class are dispatched, others on the same group are ignored. Every received
+ * datagram is delivered in order, a subscriber falling more than 1024 datagrams behind loses the oldest ones.
+ * One daemon thread per broadcaster receives datagrams until {@link #close()}.
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+public class MulticastBroadcaster implements Broadcaster {
+
+    private static final Logger logger = getLogger(MulticastBroadcaster.class);
+
+    private static final int MAGIC = 0x7a6e6331; // "znc1"
+    private static final int MAX_PACKET_SIZE = 65507;
+    private static final String DEFAULT_GROUP = "239.255.27.1";
+    private static final int DEFAULT_PORT = 24527;
+
+    private final InetSocketAddress group;
+    private final DatagramChannel channel;
+    private final SubscriberRegistry subscribers;
+    private volatile boolean closed;
+
+    private MulticastBroadcaster(Builder builder) {
+        this.group = builder.group;
+        this.subscribers = SubscriberRegistry.queued(builder.dispatchExecutor != null
+                ? builder.dispatchExecutor : BroadcastDispatchers.shared());
+        try {
+            this.channel = DatagramChannel.open(group.getAddress() instanceof Inet6Address
+                    ? StandardProtocolFamily.INET6 : StandardProtocolFamily.INET);
+            try {
+                // several broadcasters on this host share the port
+                channel.setOption(SO_REUSEADDR, true)
+                        .bind(new InetSocketAddress(group.getPort()))
+                        .setOption(IP_MULTICAST_TTL, builder.timeToLive)
+                        // broadcasters on this host are notified too
+                        .setOption(IP_MULTICAST_LOOP, true);
+                if (builder.networkInterface != null) {
+                    channel.setOption(IP_MULTICAST_IF, builder.networkInterface);
+                    channel.join(group.getAddress(), builder.networkInterface);
+                } else {
+                    joinOnAllInterfaces();
+                }
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Thread receiver = new Thread(this::receive, "multicastBroadcaster-" + group);
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    /**
+     * Without a configured interface datagrams are sent on the one chosen by the system, so the group is joined on
+     * every interface able to receive them.
+     */
+    private void joinOnAllInterfaces() throws IOException {
+        boolean joined = false;
+        for (NetworkInterface networkInterface : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+            if (networkInterface.isUp() && networkInterface.supportsMulticast()) {
+                try {
+                    channel.join(group.getAddress(), networkInterface);
+                    joined = true;
+                } catch (IOException e) {
+                    logger.debug("fail to join {} on {}", group, networkInterface, e);
+                }
+            }
+        }
+        if (!joined) {
+            throw new IOException("no interface to join " + group);
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public void subscribe(@Nonnull String path, @Nonnull Subscriber subscriber) {
+        checkNotNull(path);
+        checkNotNull(subscriber);
+        checkState(!closed, "broadcaster is closed.");
+        subscribers.add(path, subscriber);
+    }
+
+    @Override
+    public boolean unsubscribe(@Nonnull String path, @Nonnull Subscriber subscriber) {
+        checkNotNull(path);
+        checkNotNull(subscriber);
+        return subscribers.remove(path, subscriber);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the path and content do not fit in one datagram
+     */
+    @Override
+    public void broadcast(String path, String content) {
+        checkNotNull(path);
+        checkNotNull(content);
+        checkState(!closed, "broadcaster is closed.");
+        byte[] data = encode(path, content);
+        checkArgument(data.length <= MAX_PACKET_SIZE, "content is too large for a datagram:%s", path);
+        try {
+            channel.send(ByteBuffer.wrap(data), group);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Leave the group, stop the receiving thread and drop all subscribers.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        subscribers.clear();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("fail to close {}", group, e);
+        }
+    }
+
+    /**
+     * metrics of delivering notifications to subscribers, accumulated since this broadcaster was created
+     */
+    @Nonnull
+    public DispatchStats getDispatchStats() {
+        return subscribers.stats();
+    }
+
+    private static byte[] encode(String path, String content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeUTF(path);
+            out.write(content.getBytes(UTF_8));
+        } catch (IOException e) {
+            // only when the path is longer than 65535 bytes
+            throw new IllegalArgumentException("invalid path:" + path, e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void receive() {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_PACKET_SIZE);
+        while (!closed && channel.isOpen()) {
+            buffer.clear();
+            SocketAddress sender;
+            try {
+                sender = channel.receive(buffer);
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.warn("fail to receive from {}", group, e);
+                }
+                continue;
+            }
+            try (DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(buffer.array(), 0, buffer.position()))) {
+                if (buffer.position() < Integer.BYTES || in.readInt() != MAGIC) {
+                    continue;
+                }
+                String path = in.readUTF();
+                String content = new String(ByteStreams.toByteArray(in), UTF_8);
+                subscribers.dispatch(path, content, Subscriber.NO_VERSION);
+            } catch (IOException e) {
+                logger.warn("ignore malformed datagram from {}", sender, e);
+            }
+        }
+    }
+
+    public static final class Builder {
+
+        private InetSocketAddress group;
+        private NetworkInterface networkInterface;
+        private int timeToLive = 1;
+        private Executor dispatchExecutor;
+
+        private Builder() {
+            try {
+                group = new InetSocketAddress(InetAddress.getByName(DEFAULT_GROUP), DEFAULT_PORT);
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * The multicast group and port, default {@code 239.255.27.1:24527}.
+         * Only broadcasters on the same group and port notify each other.
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder withGroup(@Nonnull InetAddress address, int port) {
+            checkArgument(checkNotNull(address).isMulticastAddress(), "not a multicast address:%s", address);
+            checkArgument(port > 0 && port <= 0xFFFF, "invalid port:%s", port);
+            this.group = new InetSocketAddress(address, port);
+            return this;
+        }
+
+        /**
+         * The interface to send and receive on. By default datagrams are sent on the one chosen by the system,
+         * and received on all interfaces supporting multicast.
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder withNetworkInterface(@Nonnull NetworkInterface networkInterface) {
+            this.networkInterface = checkNotNull(networkInterface);
+            return this;
+        }
+
+        /**
+         * How many routers a datagram may pass, default 1 which keeps it in the local network.
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder withTimeToLive(int timeToLive) {
+            checkArgument(timeToLive >= 0 && timeToLive <= 255, "invalid ttl:%s", timeToLive);
+            this.timeToLive = timeToLive;
+            return this;
+        }
+
+        /**
+         * Executor running subscriber callbacks, see {@link ZkBroadcaster.Builder#withDispatchExecutor}.
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder withDispatchExecutor(@Nonnull Executor dispatchExecutor) {
+            this.dispatchExecutor = checkNotNull(dispatchExecutor);
+            return this;
+        }
+
+        @Nonnull
+        public MulticastBroadcaster build() {
+            return new MulticastBroadcaster(this);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.phantomthief.zookeeper.broadcast;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import org.slf4j.Logger;
+
+import com.github.phantomthief.zookeeper.broadcast.Broadcaster.Subscriber;
+
+/**
+ * Delivers notifications of one path to one subscriber on the dispatch executor.
+ *
+ * Callbacks of a subscriber never run concurrently and always see contents in the order they were received.
+ * At most {@code capacity} notifications wait per subscriber, when it is full the oldest waiting one is dropped,
+ * so a slow subscriber can never grow the executor queue without bound.
+ * A capacity of one conflates: a newer notification replaces the waiting one, which is what a zk watch would have
+ * observed anyway, so it only fits channels which lose intermediate contents by themselves.
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+final class SubscriberDispatcher {
+
+    private static final Logger logger = getLogger(SubscriberDispatcher.class);
+
+    private final String path;
+    private final Subscriber subscriber;
+    private final Executor executor;
+    private final DispatchStats.Recorder recorder;
+    private final int capacity;
+    /**
+     * enqueue and drop-oldest happen under one lock, so a concurrent drain can never make {@link #offer} drop
+     * the notification it has just added
+     */
+    @GuardedBy("pending")
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    SubscriberDispatcher(String path, Subscriber subscriber, Executor executor,
+            DispatchStats.Recorder recorder, int capacity) {
+        this.path = path;
+        this.subscriber = subscriber;
+        this.executor = executor;
+        this.recorder = recorder;
+        this.capacity = capacity;
+    }
+
+    Subscriber getSubscriber() {
+        return subscriber;
+    }
+
+    void offer(String content, long version) {
+        Pending added = new Pending(content, version, System.nanoTime());
+        synchronized (pending) {
+            pending.addLast(added);
+            while (pending.size() > capacity) {
+                pending.pollFirst();
+                recorder.recordConflated();
+            }
+        }
+        schedule();
+    }
+
+    private Pending poll() {
+        synchronized (pending) {
+            return pending.pollFirst();
+        }
+    }
+
+    private boolean hasPending() {
+        synchronized (pending) {
+            return !pending.isEmpty();
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // never lose the latest content, deliver it on the notifying thread instead
+                recorder.recordCallerRuns();
+                drain();
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            Pending current;
+            while ((current = poll()) != null) {
+                recorder.recordDispatch(System.nanoTime() - current.receivedNanos);
+                try {
+                    subscriber.onChanged(current.content, current.version);
+                } catch (Throwable e) {
+                    logger.error("Ops. fail to do handle for:{}->{}", path, subscriber, e);
+                }
+            }
+        } finally {
+            scheduled.set(false);
+        }
+        // a notification arrived after the loop ended but before the flag was cleared
+        if (hasPending()) {
+            schedule();
+        }
+    }
+
+    private static final class Pending {
+
+        private final String content;
+        private final long version;
+        private final long receivedNanos;
+
+        private Pending(String content, long version, long receivedNanos) {
+            this.content = content;
+            this.version = version;
+            this.receivedNanos = receivedNanos;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.phantomthief.zookeeper.broadcast;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+
+import com.github.phantomthief.zookeeper.broadcast.Broadcaster.Subscriber;
+
+/**
+ * Copy-on-write registry of subscribers by path.
+ *
+ * Every subscribe/unsubscribe publishes a new array, so {@link #dispatch} iterates an immutable snapshot
+ * without locking or allocating, and never sees a half-updated set. Subscribing is rare compared with notifying,
+ * so copying on write is cheap enough.
+ *
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+final class SubscriberRegistry {
+
+    private static final SubscriberDispatcher[] EMPTY = new SubscriberDispatcher[0];
+
+    private final ConcurrentMap<String, SubscriberDispatcher[]> subscribers = new ConcurrentHashMap<>();
+    /**
+     * notifications waiting per subscriber on a queued registry, the oldest ones are dropped beyond that
+     */
+    static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private final Executor dispatchExecutor;
+    private final int capacity;
+    private final DispatchStats.Recorder recorder = new DispatchStats.Recorder();
+
+    private SubscriberRegistry(Executor dispatchExecutor, int capacity) {
+        this.dispatchExecutor = dispatchExecutor;
+        this.capacity = capacity;
+    }
+
+    /**
+     * every notification is delivered in order, up to {@link #DEFAULT_QUEUE_CAPACITY} waiting per subscriber
+     */
+    static SubscriberRegistry queued(Executor dispatchExecutor) {
+        return new SubscriberRegistry(dispatchExecutor, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * only the latest notification waits per subscriber, for channels which conflate by themselves like zk watches
+     */
+    static SubscriberRegistry conflating(Executor dispatchExecutor) {
+        return new SubscriberRegistry(dispatchExecutor, 1);
+    }
+
+    /**
+     * @return {@code false} if the subscriber was already subscribed on the path
+     */
+    boolean add(@Nonnull String path, @Nonnull Subscriber subscriber) {
+        boolean[] added = { false };
+        subscribers.compute(path, (k, old) -> {
+            if (old == null) {
+                old = EMPTY;
+            }
+            for (SubscriberDispatcher dispatcher : old) {
+                if (dispatcher.getSubscriber().equals(subscriber)) {
+                    return old;
+                }
+            }
+            SubscriberDispatcher[] updated = Arrays.copyOf(old, old.length + 1);
+            updated[old.length] = new SubscriberDispatcher(path, subscriber, dispatchExecutor, recorder, capacity);
+            added[0] = true;
+            return updated;
+        });
+        return added[0];
+    }
+
+    /**
+     * @return {@code false} if the subscriber was not subscribed on the path
+     */
+    boolean remove(@Nonnull String path, @Nonnull Subscriber subscriber) {
+        boolean[] removed = { false };
+        subscribers.computeIfPresent(path, (k, old) -> {
+            for (int i = 0; i < old.length; i++) {
+                if (old[i].getSubscriber().equals(subscriber)) {
+                    removed[0] = true;
+                    if (old.length == 1) {
+                        return null;
+                    }
+                    SubscriberDispatcher[] updated = new SubscriberDispatcher[old.length - 1];
+                    System.arraycopy(old, 0, updated, 0, i);
+                    System.arraycopy(old, i + 1, updated, i, old.length - i - 1);
+                    return updated;
+                }
+            }
+            return old;
+        });
+        return removed[0];
+    }
+
+    boolean hasSubscribers(@Nonnull String path) {
+        return subscribers.containsKey(path);
+    }
+
+    /**
+     * paths having at least one subscriber, a weakly consistent view
+     */
+    Set<String> paths() {
+        return subscribers.keySet();
+    }
+
+    /**
+     * hands the content over to the dispatcher of every subscriber currently on the path
+     */
+    void dispatch(@Nonnull String path, String content, long version) {
+        SubscriberDispatcher[] snapshot = subscribers.get(path);
+        if (snapshot == null) {
+            return;
+        }
+        for (SubscriberDispatcher dispatcher : snapshot) {
+            dispatcher.offer(content, version);
+        }
+    }
+
+    void clear() {
+        subscribers.clear();
+    }
+
+    DispatchStats stats() {
+        return recorder.snapshot();
+    }
+}
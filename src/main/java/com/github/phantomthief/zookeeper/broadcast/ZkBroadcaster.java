@@ -1,60 +1,128 @@
 package com.github.phantomthief.zookeeper.broadcast;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.base.Strings.nullToEmpty;
 import static com.google.common.base.Throwables.throwIfUnchecked;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.newSetFromMap;
 import static org.apache.curator.utils.ZKPaths.makePath;
 import static org.slf4j.LoggerFactory.getLogger;
 
-import java.util.HashSet;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
+import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
 
 import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.transaction.CuratorOp;
 import org.apache.curator.framework.recipes.cache.ChildData;
 import org.apache.curator.framework.recipes.cache.NodeCache;
+import org.apache.curator.framework.recipes.cache.PathChildrenCache;
+import org.apache.curator.framework.recipes.cache.PathChildrenCache.StartMode;
+import org.apache.curator.framework.recipes.cache.TreeCache;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.apache.curator.framework.recipes.nodes.PersistentNode;
+import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.KeeperException.Code;
 import org.slf4j.Logger;
 
+import com.google.common.cache.CacheBuilder;
+
 /**
  * @author w.vela
  */
 public class ZkBroadcaster implements Broadcaster {
 
     private static final String DEFAULT_ZK_PREFIX = "/broadcast";
+    private static final String MEMBERS_SUFFIX = "__members";
+    private static final long JOIN_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(10);
 
     private final Logger logger = getLogger(getClass());
 
     private final Supplier<CuratorFramework> curatorFactory;
     private final String zkPrefix;
-    private final ConcurrentMap<String, Set<Subscriber>> subscribeMap = new ConcurrentHashMap<>();
+    private final boolean watchSubtree;
+    private final long subtreeInitTimeoutMs;
+    /**
+     * key is the real zk path (with {@link #zkPrefix})
+     */
+    private final SubscriberRegistry subscribers;
     private final ConcurrentMap<String, NodeCache> nodeCacheMap = new ConcurrentHashMap<>();
+    @GuardedBy("this")
+    private TreeCache treeCache;
+    private volatile boolean treeCacheInitialized;
+    private volatile boolean closed;
+    /**
+     * real paths known to exist, so subscribing to them or writing them with {@link #broadcastAll} does not check
+     * the node first. Bounded, a path evicted from here only costs one extra round trip the next time.
+     */
+    private final Set<String> knownPaths;
+    /**
+     * key is the zk path of the members, one watch per path shared by all joins through this broadcaster
+     */
+    private final ConcurrentMap<String, MembersWatch> membersWatches = new ConcurrentHashMap<>();
+    private final Set<PersistentNode> memberNodes = ConcurrentHashMap.newKeySet();
 
     public ZkBroadcaster(Supplier<CuratorFramework> curatorFactory, String zkPrefix) {
-        this.curatorFactory = curatorFactory;
-        this.zkPrefix = zkPrefix;
+        this(newBuilder().withCuratorFactory(curatorFactory).withZkPrefix(zkPrefix));
     }
 
     public ZkBroadcaster(Supplier<CuratorFramework> curatorFactory) {
         this(curatorFactory, DEFAULT_ZK_PREFIX);
     }
 
+    private ZkBroadcaster(Builder builder) {
+        this.curatorFactory = builder.curatorFactory;
+        this.zkPrefix = builder.zkPrefix;
+        this.watchSubtree = builder.watchSubtree;
+        this.subtreeInitTimeoutMs = builder.subtreeInitTimeoutMs;
+        this.knownPaths = newSetFromMap(CacheBuilder.newBuilder()
+                .maximumSize(builder.knownPathsCapacity)
+                .<String, Boolean> build()
+                .asMap());
+        this.subscribers = SubscriberRegistry.conflating(builder.dispatchExecutor != null
+                ? builder.dispatchExecutor : BroadcastDispatchers.shared());
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
     @Override
     public void subscribe(@Nonnull String path, @Nonnull Subscriber subscriber) {
         checkNotNull(path);
         checkNotNull(subscriber);
+        checkState(!closed, "broadcaster is closed.");
 
-        Set<Subscriber> subscribers = subscribeMap.compute(path, (k, oldSet) -> {
-            if (oldSet == null) {
-                oldSet = new HashSet<>();
-            }
-            oldSet.add(subscriber);
-            return oldSet;
-        });
+        String realPath = makePath(zkPrefix, path);
+        if (watchSubtree) {
+            // the tree cache sees nodes created later, and would dispatch an early creation to other subscribers
+            subscribers.add(realPath, subscriber);
+            ensureTreeCache();
+            return;
+        }
+        // create the node before subscribing, so its creation is not dispatched as a notification
+        ensureNodeQuietly(realPath);
+        subscribers.add(realPath, subscriber);
 
         nodeCacheMap.computeIfAbsent(path, p -> {
             CuratorFramework curatorFramework = curatorFactory.get();
@@ -75,31 +143,522 @@ public class ZkBroadcaster implements Broadcaster {
                     content = "";
                 }
 
-                subscribers.parallelStream().forEach(s -> {
-                    try {
-                        s.onChanged(content);
-                    } catch (Throwable e) {
-                        logger.error("Ops. fail to do handle for:{}->{}", zkPrefix, s, e);
-                    }
-                });
+                subscribers.dispatch(realPath, content, versionOf(currentData));
             });
             return nodeCache;
         });
     }
 
+    /**
+     * One {@link TreeCache} on {@link #zkPrefix} serves all subscribed paths.
+     * Only changes after the initial load are dispatched, the same as what {@link NodeCache} mode does.
+     */
+    private synchronized void ensureTreeCache() {
+        if (treeCache != null) {
+            return;
+        }
+        CountDownLatch initLatch = new CountDownLatch(1);
+        TreeCache cache = TreeCache.newBuilder(curatorFactory.get(), zkPrefix)
+                .setCacheData(true)
+                .build();
+        cache.getListenable().addListener((client, event) -> {
+            if (event.getType() == TreeCacheEvent.Type.INITIALIZED) {
+                treeCacheInitialized = true;
+                initLatch.countDown();
+                return;
+            }
+            if (!treeCacheInitialized || event.getData() == null) {
+                return;
+            }
+            switch (event.getType()) {
+                case NODE_ADDED:
+                case NODE_UPDATED:
+                case NODE_REMOVED:
+                    String eventPath = event.getData().getPath();
+                    if (subscribers.hasSubscribers(eventPath)) {
+                        ChildData childData = event.getType() == TreeCacheEvent.Type.NODE_REMOVED ? null
+                                                                                                 : event.getData();
+                        byte[] data = childData != null ? childData.getData() : null;
+                        subscribers.dispatch(eventPath, data != null ? new String(data, UTF_8) : "",
+                                versionOf(childData));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        });
+        try {
+            cache.start();
+            if (!initLatch.await(subtreeInitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.warn("subtree watch on {} is not initialized in {}ms, changes before it is ready are ignored.",
+                        zkPrefix, subtreeInitTimeoutMs);
+            }
+        } catch (Throwable e) {
+            cache.close();
+            throwIfUnchecked(e);
+            throw new RuntimeException(e);
+        }
+        treeCache = cache;
+    }
+
+    /**
+     * The data version of the node, incremented by every setData, so subscribers can tell notifications lost by
+     * watch conflation. It starts over when the node is deleted and created again.
+     */
+    private static long versionOf(@Nullable ChildData childData) {
+        return childData != null && childData.getStat() != null ? childData.getStat().getVersion()
+                                                               : Subscriber.NO_VERSION;
+    }
+
+    /**
+     * Stop notifying the subscriber on the path. The subscriber may still get one in-flight notification.
+     *
+     * @return {@code false} if the subscriber was not subscribed on the path
+     */
+    @Override
+    public boolean unsubscribe(@Nonnull String path, @Nonnull Subscriber subscriber) {
+        checkNotNull(path);
+        checkNotNull(subscriber);
+        String realPath = makePath(zkPrefix, path);
+        if (!subscribers.remove(realPath, subscriber)) {
+            return false;
+        }
+        // checked inside the map lock, so a concurrent subscribe either keeps this NodeCache or builds a new one
+        nodeCacheMap.computeIfPresent(path, (p, nodeCache) -> {
+            if (subscribers.hasSubscribers(realPath)) {
+                return nodeCache;
+            }
+            closeQuietly(nodeCache);
+            return null;
+        });
+        return true;
+    }
+
+    /**
+     * Every join is an ephemeral sequential node under {@code <prefix>__members/<path>}, re-created after the zk
+     * session expired. They are kept outside the prefix, so neither the notify node nor a subtree watch sees them.
+     * Joins on the same path through this broadcaster share one watch on the members.
+     */
+    @Nonnull
+    @Override
+    public Membership join(@Nonnull String path) {
+        checkNotNull(path);
+        checkState(!closed, "broadcaster is closed.");
+        String membersPath = makePath(nullToEmpty(zkPrefix) + MEMBERS_SUFFIX, path);
+        CuratorFramework curatorFramework = curatorFactory.get();
+        PersistentNode node = new PersistentNode(curatorFramework, CreateMode.EPHEMERAL_SEQUENTIAL, false,
+                makePath(membersPath, "member-"), new byte[0]);
+        MembersWatch watch;
+        try {
+            node.start();
+            if (!node.waitForInitialCreate(JOIN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                logger.warn("member node under {} is not created in {}ms, it is created in background.",
+                        membersPath, JOIN_TIMEOUT_MS);
+            }
+            watch = membersWatches.compute(membersPath, (p, existing) -> {
+                MembersWatch joined = existing != null ? existing : startMembersWatch(curatorFramework, p);
+                joined.refs++;
+                return joined;
+            });
+        } catch (Throwable e) {
+            closeQuietly(node);
+            throwIfUnchecked(e);
+            throw new RuntimeException(e);
+        }
+        memberNodes.add(node);
+        AtomicBoolean left = new AtomicBoolean();
+        return new Membership() {
+
+            @Override
+            public int size() {
+                return watch.size();
+            }
+
+            @Override
+            public void close() {
+                if (left.compareAndSet(false, true)) {
+                    if (memberNodes.remove(node)) {
+                        closeQuietly(node);
+                    }
+                    membersWatches.computeIfPresent(membersPath, (p, joined) -> {
+                        if (joined != watch || --joined.refs > 0) {
+                            return joined;
+                        }
+                        closeQuietly(joined.members);
+                        return null;
+                    });
+                }
+            }
+        };
+    }
+
+    private MembersWatch startMembersWatch(CuratorFramework curatorFramework, String membersPath) {
+        PathChildrenCache members = new PathChildrenCache(curatorFramework, membersPath, false);
+        try {
+            members.start(StartMode.BUILD_INITIAL_CACHE);
+        } catch (Throwable e) {
+            closeQuietly(members);
+            throwIfUnchecked(e);
+            throw new RuntimeException(e);
+        }
+        return new MembersWatch(members);
+    }
+
+    /**
+     * Close all NodeCaches (or the subtree watch) and memberships, and drop all subscribers.
+     * The curator client is not closed, it is managed by the caller.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        subscribers.clear();
+        memberNodes.forEach(node -> {
+            if (memberNodes.remove(node)) {
+                closeQuietly(node);
+            }
+        });
+        membersWatches.keySet().forEach(path -> membersWatches.computeIfPresent(path, (p, watch) -> {
+            closeQuietly(watch.members);
+            return null;
+        }));
+        nodeCacheMap.keySet().forEach(path -> nodeCacheMap.computeIfPresent(path, (p, nodeCache) -> {
+            closeQuietly(nodeCache);
+            return null;
+        }));
+        synchronized (this) {
+            if (treeCache != null) {
+                closeQuietly(treeCache);
+                treeCache = null;
+                treeCacheInitialized = false;
+            }
+        }
+    }
+
+    private void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (Throwable e) {
+            logger.warn("fail to close {}", closeable, e);
+        }
+    }
+
+    /**
+     * metrics of delivering notifications to subscribers, accumulated since this broadcaster was created
+     */
+    @Nonnull
+    public DispatchStats getDispatchStats() {
+        return subscribers.stats();
+    }
+
+    /**
+     * Written with one {@code setData}, the node is created with the content only if it is missing.
+     * Paths not yet known to this broadcaster are usually existing nodes, e.g. after a restart, so trying
+     * {@code setData} first costs one round trip for them, and a failed one only for a node really missing.
+     */
     @Override
     public void broadcast(String path, String content) {
         String realPath = makePath(zkPrefix, path);
+        byte[] data = content.getBytes(UTF_8);
+        CuratorFramework curatorFramework = curatorFactory.get();
         try {
             try {
-                curatorFactory.get().setData().forPath(realPath, content.getBytes(UTF_8));
+                curatorFramework.setData().forPath(realPath, data);
             } catch (KeeperException.NoNodeException e) {
-                curatorFactory.get().create().creatingParentsIfNeeded().forPath(realPath,
-                        content.getBytes(UTF_8));
+                // never created, or deleted by others after being known
+                knownPaths.remove(realPath);
+                createOrSetData(curatorFramework, realPath, data);
             }
+            knownPaths.add(realPath);
         } catch (Throwable e) {
             throwIfUnchecked(e);
             throw new RuntimeException(e);
         }
     }
+
+    private void createOrSetData(CuratorFramework curatorFramework, String realPath, byte[] data)
+            throws Exception {
+        try {
+            curatorFramework.create().creatingParentsIfNeeded().forPath(realPath, data);
+        } catch (KeeperException.NodeExistsException e) {
+            // created before this broadcaster knew it, or by another broadcaster at the same time
+            curatorFramework.setData().forPath(realPath, data);
+        }
+    }
+
+    /**
+     * Write all paths in one zk multi-op transaction: one round trip, and either every path is notified or none.
+     * Missing nodes fail the whole transaction, they are created and the transaction is retried once.
+     */
+    @Override
+    public void broadcastAll(@Nonnull Map<String, String> contents) {
+        checkNotNull(contents);
+        if (contents.size() <= 1) {
+            contents.forEach(this::broadcast);
+            return;
+        }
+        CuratorFramework curatorFramework = curatorFactory.get();
+        try {
+            for (String path : contents.keySet()) {
+                String realPath = makePath(zkPrefix, path);
+                if (!knownPaths.contains(realPath)) {
+                    ensureNode(curatorFramework, realPath);
+                }
+            }
+            try {
+                commitSetData(curatorFramework, contents);
+            } catch (KeeperException.NoNodeException e) {
+                // deleted by others after being known
+                for (String path : contents.keySet()) {
+                    String realPath = makePath(zkPrefix, path);
+                    knownPaths.remove(realPath);
+                    ensureNode(curatorFramework, realPath);
+                }
+                commitSetData(curatorFramework, contents);
+            }
+        } catch (Throwable e) {
+            throwIfUnchecked(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void commitSetData(CuratorFramework curatorFramework, Map<String, String> contents)
+            throws Exception {
+        curatorFramework.transaction().forOperations(setDataOps(curatorFramework, contents));
+    }
+
+    private List<CuratorOp> setDataOps(CuratorFramework curatorFramework, Map<String, String> contents)
+            throws Exception {
+        List<CuratorOp> ops = new ArrayList<>(contents.size());
+        for (Entry<String, String> entry : contents.entrySet()) {
+            ops.add(curatorFramework.transactionOp().setData()
+                    .forPath(makePath(zkPrefix, entry.getKey()), entry.getValue().getBytes(UTF_8)));
+        }
+        return ops;
+    }
+
+    /**
+     * Write with a background {@code setData}, falling back to a background {@code create} if the node is missing,
+     * the same as {@link #broadcast}.
+     * The returned future is completed on the zk event thread, so don't block in its dependent stages.
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<Void> broadcastAsync(@Nonnull String path, @Nonnull String content) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            String realPath = makePath(zkPrefix, path);
+            byte[] data = content.getBytes(UTF_8);
+            setDataInBackground(curatorFactory.get(), realPath, data, future, true);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Write all paths in one background multi-op transaction.
+     * If some node is missing, falls back to {@link #broadcastAsync} path by path, which is not atomic.
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<Void> broadcastAllAsync(@Nonnull Map<String, String> contents) {
+        checkNotNull(contents);
+        if (contents.size() <= 1) {
+            return Broadcaster.super.broadcastAllAsync(contents);
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            CuratorFramework curatorFramework = curatorFactory.get();
+            curatorFramework.transaction().inBackground((client, event) -> {
+                Code code = Code.get(event.getResultCode());
+                if (code == Code.OK) {
+                    future.complete(null);
+                } else if (code == Code.NONODE) {
+                    contents.keySet().forEach(path -> knownPaths.remove(makePath(zkPrefix, path)));
+                    Broadcaster.super.broadcastAllAsync(contents).whenComplete((v, e) -> {
+                        if (e != null) {
+                            future.completeExceptionally(e);
+                        } else {
+                            future.complete(null);
+                        }
+                    });
+                } else {
+                    future.completeExceptionally(KeeperException.create(code));
+                }
+            }).forOperations(setDataOps(curatorFramework, contents));
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void setDataInBackground(CuratorFramework curatorFramework, String realPath, byte[] data,
+            CompletableFuture<Void> future, boolean createIfMissing) throws Exception {
+        curatorFramework.setData().inBackground((client, event) -> {
+            try {
+                Code code = Code.get(event.getResultCode());
+                if (code == Code.OK) {
+                    knownPaths.add(realPath);
+                    future.complete(null);
+                } else if (code == Code.NONODE && createIfMissing) {
+                    knownPaths.remove(realPath);
+                    createInBackground(client, realPath, data, future);
+                } else {
+                    future.completeExceptionally(KeeperException.create(code, realPath));
+                }
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }).forPath(realPath, data);
+    }
+
+    private void createInBackground(CuratorFramework curatorFramework, String realPath, byte[] data,
+            CompletableFuture<Void> future) throws Exception {
+        curatorFramework.create().creatingParentsIfNeeded().inBackground((client, event) -> {
+            try {
+                Code code = Code.get(event.getResultCode());
+                if (code == Code.OK) {
+                    knownPaths.add(realPath);
+                    future.complete(null);
+                } else if (code == Code.NODEEXISTS) {
+                    // created before this broadcaster knew it, or by another broadcaster at the same time
+                    setDataInBackground(client, realPath, data, future, false);
+                } else {
+                    future.completeExceptionally(KeeperException.create(code, realPath));
+                }
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }).forPath(realPath, data);
+    }
+
+    private void ensureNode(CuratorFramework curatorFramework, String realPath) throws Exception {
+        if (curatorFramework.checkExists().forPath(realPath) == null) {
+            try {
+                curatorFramework.create().creatingParentsIfNeeded().forPath(realPath, new byte[0]);
+            } catch (KeeperException.NodeExistsException e) {
+                // created by another broadcaster at the same time
+            }
+        }
+        knownPaths.add(realPath);
+    }
+
+    /**
+     * Subscribers may have no write permission, so a failure only costs the first broadcast a round trip.
+     */
+    private void ensureNodeQuietly(String realPath) {
+        if (knownPaths.contains(realPath)) {
+            return;
+        }
+        try {
+            ensureNode(curatorFactory.get(), realPath);
+        } catch (Throwable e) {
+            logger.warn("fail to create notify node {}, it will be created on the first broadcast.", realPath, e);
+        }
+    }
+
+    private static final class MembersWatch {
+
+        private final PathChildrenCache members;
+        /**
+         * joins sharing this watch, only changed inside the {@link #membersWatches} map lock
+         */
+        private int refs;
+
+        private MembersWatch(PathChildrenCache members) {
+            this.members = members;
+        }
+
+        private int size() {
+            return Math.max(1, members.getCurrentData().size());
+        }
+    }
+
+    public static final class Builder {
+
+        private Supplier<CuratorFramework> curatorFactory;
+        private String zkPrefix = DEFAULT_ZK_PREFIX;
+        private boolean watchSubtree;
+        private long subtreeInitTimeoutMs = TimeUnit.SECONDS.toMillis(30);
+        private Executor dispatchExecutor;
+        private long knownPathsCapacity = 10000;
+
+        @CheckReturnValue
+        @Nonnull
+        public Builder withCuratorFactory(@Nonnull Supplier<CuratorFramework> curatorFactory) {
+            this.curatorFactory = checkNotNull(curatorFactory);
+            return this;
+        }
+
+        /**
+         * @param zkPrefix root of all broadcast paths, {@code null} for no prefix
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder withZkPrefix(String zkPrefix) {
+            this.zkPrefix = zkPrefix;
+            return this;
+        }
+
+        /**
+         * Watch the whole prefix subtree with a single {@link TreeCache} instead of a {@link NodeCache} per path.
+         *
+         * The subtree is loaded with pipelined background reads once, on the first subscribe, so subscribing
+         * many paths no longer costs a synchronous round trip each. Requires a non-empty prefix, and everything
+         * under the prefix is loaded and watched, so keep the prefix dedicated to broadcasts.
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder watchSubtree() {
+            this.watchSubtree = true;
+            return this;
+        }
+
+        /**
+         * How long the first subscribe waits for the subtree to be loaded, default 30s.
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder subtreeInitTimeout(long timeout, @Nonnull TimeUnit unit) {
+            this.subtreeInitTimeoutMs = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Executor running subscriber callbacks. Callbacks of one subscriber still run one at a time and in order,
+         * and at most one task per subscriber is queued. If the executor rejects a task, the callback runs on the
+         * zk event thread instead of being dropped.
+         *
+         * Defaults to a small pool shared by all broadcasters, see {@code zknotify.broadcast.dispatchThreads}.
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder withDispatchExecutor(@Nonnull Executor dispatchExecutor) {
+            this.dispatchExecutor = checkNotNull(dispatchExecutor);
+            return this;
+        }
+
+        /**
+         * How many paths are remembered as existing, default 10000.
+         * Subscribing to or {@link ZkBroadcaster#broadcastAll} on a remembered path skips checking or creating
+         * the node first.
+         */
+        @CheckReturnValue
+        @Nonnull
+        public Builder knownPathsCapacity(long capacity) {
+            checkArgument(capacity > 0, "capacity must be positive.");
+            this.knownPathsCapacity = capacity;
+            return this;
+        }
+
+        @Nonnull
+        public ZkBroadcaster build() {
+            checkNotNull(curatorFactory, "no curator factory.");
+            if (watchSubtree) {
+                checkArgument(!isNullOrEmpty(zkPrefix) && !"/".equals(zkPrefix),
+                        "subtree watch requires a dedicated zk prefix.");
+            }
+            return new ZkBroadcaster(this);
+        }
+    }
 }
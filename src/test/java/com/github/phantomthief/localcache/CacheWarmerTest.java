@@ -0,0 +1,119 @@
+package com.github.phantomthief.localcache;
+
+import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.phantomthief.localcache.impl.ZkNotifyReloadCache;
+
+/**
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+class CacheWarmerTest {
+
+    @Test
+    void testWarmUp() {
+        List<ReloadableCache<String>> caches = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            caches.add(ZkNotifyReloadCache.<String> newBuilder()
+                    .withCacheFactory(() -> {
+                        sleepUninterruptibly(100, MILLISECONDS);
+                        return "test";
+                    })
+                    .build());
+        }
+        ReloadableCache<String> failed = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> {
+                    throw new IOException();
+                })
+                .build();
+        caches.add(failed);
+
+        CacheWarmer.Result result = CacheWarmer.newBuilder()
+                .withConcurrency(10)
+                .withDeadline(Duration.ofSeconds(10))
+                .build()
+                .warmUp(caches);
+        assertEquals(20, result.getSucceeded().size());
+        assertEquals(1, result.getFailed().size());
+        assertSame(IOException.class, result.getFailed().get(failed).getCause().getClass());
+        assertTrue(result.getTimeout().isEmpty());
+        assertFalse(result.isAllSucceeded());
+        assertTrue(result.getElapsed().toMillis() < 1000);
+        result.getSucceeded().values().forEach(it -> assertTrue(it.toMillis() >= 100));
+        caches.forEach(it -> {
+            if (it != failed) {
+                assertEquals("test", it.getIfPresent());
+            }
+        });
+    }
+
+    @Test
+    void testDeadline() {
+        List<ReloadableCache<String>> caches = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            caches.add(ZkNotifyReloadCache.<String> newBuilder()
+                    .withCacheFactory(() -> {
+                        sleepUninterruptibly(300, MILLISECONDS);
+                        return "test";
+                    })
+                    .build());
+        }
+        CacheWarmer.Result result = CacheWarmer.newBuilder()
+                .withConcurrency(1)
+                .withDeadline(Duration.ofMillis(100))
+                .build()
+                .warmUp(caches);
+        assertTrue(result.getSucceeded().isEmpty());
+        assertEquals(4, result.getTimeout().size());
+    }
+
+    @Test
+    void testInterrupted() {
+        List<ReloadableCache<String>> caches = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            caches.add(ZkNotifyReloadCache.<String> newBuilder()
+                    .withCacheFactory(() -> {
+                        sleepUninterruptibly(300, MILLISECONDS);
+                        return "test";
+                    })
+                    .build());
+        }
+        Thread.currentThread().interrupt();
+        CacheWarmer.Result result = CacheWarmer.newBuilder()
+                .withConcurrency(1)
+                .withDeadline(Duration.ofSeconds(30))
+                .build()
+                .warmUp(caches);
+        assertTrue(Thread.interrupted());
+        assertEquals(4, result.getTimeout().size());
+        assertTrue(result.getElapsed().toMillis() < 300);
+    }
+
+    @Test
+    void testDuplicated() {
+        AtomicInteger count = new AtomicInteger();
+        ReloadableCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> "test" + count.getAndIncrement())
+                .build();
+        CacheWarmer.Result result = CacheWarmer.newBuilder()
+                .build()
+                .warmUp(Arrays.asList(cache, cache));
+        assertEquals(1, result.getSucceeded().size());
+        assertTrue(result.isAllSucceeded());
+        assertEquals(1, count.get());
+    }
+}
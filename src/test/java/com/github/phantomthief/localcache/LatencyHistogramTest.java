@@ -0,0 +1,43 @@
+package com.github.phantomthief.localcache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.getValueAtPercentile(99));
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-5);
+        assertEquals(1001, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(0L, histogram.getValueAtPercentile(0));
+        long p50 = histogram.getValueAtPercentile(50);
+        assertTrue(p50 >= 500 && p50 <= 500 + 500 / 16, "p50:" + p50);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue(p99 >= 990 && p99 <= 1000, "p99:" + p99);
+        assertEquals(1000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void testBuckets() {
+        long[] values = {0, 1, 31, 32, 33, 63, 64, 1000, 123456789L, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(LatencyHistogram.bucketUpperBound(index) >= value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.bucketUpperBound(index - 1) < value);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.phantomthief.localcache.impl;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.phantomthief.zookeeper.broadcast.LocalBroadcaster;
+
+/**
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+class AdaptiveJitterTest {
+
+    @Test
+    void testWindow() {
+        AdaptiveJitter jitter = new AdaptiveJitter(2, 1000);
+        // no factory duration observed yet
+        assertEquals(0, jitter.getAsLong());
+
+        jitter.recordFactoryDuration(MILLISECONDS.toNanos(100));
+        assertEquals(1, jitter.members());
+        assertEquals(50, jitter.getAsLong());
+
+        LocalBroadcaster broadcaster = new LocalBroadcaster();
+        for (int i = 0; i < 4; i++) {
+            jitter.addMembership(broadcaster.join("/jitter"));
+        }
+        assertEquals(4, jitter.members());
+        assertEquals(200, jitter.getAsLong());
+
+        // moves towards the latest duration
+        jitter.recordFactoryDuration(MILLISECONDS.toNanos(600));
+        assertEquals(400, jitter.getAsLong());
+
+        // capped by max sleep
+        for (int i = 0; i < 8; i++) {
+            jitter.addMembership(broadcaster.join("/jitter"));
+        }
+        assertEquals(1000, jitter.getAsLong());
+
+        jitter.closeMemberships();
+        assertEquals(1, jitter.members());
+        assertEquals(1, broadcaster.join("/jitter").size());
+    }
+}
@@ -0,0 +1,220 @@
+package com.github.phantomthief.localcache.impl;
+
+import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnull;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.test.TestingServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.github.phantomthief.zookeeper.broadcast.Broadcaster;
+import com.github.phantomthief.zookeeper.broadcast.Broadcaster.Subscriber;
+import com.github.phantomthief.zookeeper.broadcast.LocalBroadcaster;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+class ZkNotifyLoadingCacheTest {
+
+    private static TestingServer testingServer;
+    private static CuratorFramework curatorFramework;
+
+    @BeforeAll
+    static void init() throws Exception {
+        testingServer = new TestingServer(true);
+        curatorFramework = CuratorFrameworkFactory.newClient(testingServer.getConnectString(),
+                new ExponentialBackoffRetry(10000, 20));
+        curatorFramework.start();
+    }
+
+    @AfterAll
+    static void destroy() throws IOException {
+        curatorFramework.close();
+        testingServer.close();
+    }
+
+    @Test
+    void testReloadKey() {
+        Map<Integer, AtomicInteger> source = new ConcurrentHashMap<>();
+        List<String> cleaned = new CopyOnWriteArrayList<>();
+        ZkNotifyLoadingCache<Integer, String> cache = ZkNotifyLoadingCache.<Integer, String> newBuilder()
+                .withCacheFactory(key -> key + "_" + source.computeIfAbsent(key, k -> new AtomicInteger())
+                        .getAndIncrement())
+                .withKeyCodec(String::valueOf, Integer::valueOf)
+                .withNotifyZkPath("/loadingTest")
+                .withCuratorFactory(() -> curatorFramework)
+                .withOldCleanup(cleaned::add)
+                .build();
+        assertEquals("1_0", cache.get(1));
+        assertEquals("2_0", cache.get(2));
+        assertNull(cache.getIfPresent(3));
+
+        cache.reload(1);
+        sleepUninterruptibly(1, SECONDS);
+        assertNull(cache.getIfPresent(1));
+        assertEquals("2_0", cache.getIfPresent(2));
+        assertEquals("1_1", cache.get(1));
+        assertEquals("1_0", cleaned.get(0));
+
+        cache.reloadAll();
+        sleepUninterruptibly(1, SECONDS);
+        assertEquals(0, cache.size());
+        assertEquals("2_1", cache.get(2));
+
+        cache.close();
+        assertThrows(IllegalStateException.class, () -> cache.get(1));
+    }
+
+    @Test
+    void testRefreshOnNotify() {
+        AtomicInteger count = new AtomicInteger();
+        ZkNotifyLoadingCache<String, String> cache = ZkNotifyLoadingCache.<String, String> newBuilder()
+                .withCacheFactory(key -> key + "_" + count.getAndIncrement())
+                .withNotifyZkPath("/loadingRefreshTest")
+                .withCuratorFactory(() -> curatorFramework)
+                .refreshOnNotify()
+                .maximumSize(10)
+                .build();
+        assertEquals("a_0", cache.get("a"));
+        cache.reload("a");
+        sleepUninterruptibly(1, SECONDS);
+        assertEquals("a_1", cache.getIfPresent("a"));
+        cache.reload("b");
+        sleepUninterruptibly(1, SECONDS);
+        assertNull(cache.getIfPresent("b"));
+        cache.close();
+    }
+
+    @Test
+    void testNotifyWhileLoading() throws Exception {
+        AtomicReference<String> source = new AtomicReference<>("old");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        LocalBroadcaster broadcaster = new LocalBroadcaster();
+        ZkNotifyLoadingCache<String, String> cache = ZkNotifyLoadingCache.<String, String> newBuilder()
+                .withCacheFactory(key -> {
+                    String value = source.get();
+                    if (loads.getAndIncrement() == 0) {
+                        loading.countDown();
+                        release.await();
+                    }
+                    return value;
+                })
+                .withNotifyZkPath("/loadingRaceTest")
+                .withBroadcaster(broadcaster)
+                .build();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> first = executor.submit(() -> cache.get("k"));
+            loading.await();
+            // changed and notified while the first load is still running with the value read before
+            source.set("new");
+            cache.reload("k");
+            sleepUninterruptibly(100, MILLISECONDS);
+            release.countDown();
+            assertEquals("new", first.get(5, SECONDS));
+            assertEquals("new", cache.get("k"));
+            assertEquals(2, loads.get());
+        } finally {
+            executor.shutdownNow();
+            cache.close();
+            broadcaster.close();
+        }
+    }
+
+    @Test
+    void testNotifyNotConflated() {
+        ExecutorService dispatchExecutor = Executors.newSingleThreadExecutor();
+        CountDownLatch blocked = new CountDownLatch(1);
+        dispatchExecutor.execute(() -> Uninterruptibles.awaitUninterruptibly(blocked));
+        LocalBroadcaster broadcaster = new LocalBroadcaster(dispatchExecutor);
+        AtomicInteger count = new AtomicInteger();
+        ZkNotifyLoadingCache<String, String> cache = ZkNotifyLoadingCache.<String, String> newBuilder()
+                .withCacheFactory(key -> key + "_" + count.getAndIncrement())
+                .withNotifyZkPath("/loadingQueuedTest")
+                .withBroadcaster(broadcaster)
+                .build();
+        assertEquals("k1_0", cache.get("k1"));
+        assertEquals("k2_1", cache.get("k2"));
+        cache.reload("k1");
+        cache.reload("k2");
+        blocked.countDown();
+        sleepUninterruptibly(200, MILLISECONDS);
+        assertNull(cache.getIfPresent("k1"));
+        assertNull(cache.getIfPresent("k2"));
+        assertEquals(0, broadcaster.getDispatchStats().getConflated());
+        cache.close();
+        broadcaster.close();
+        dispatchExecutor.shutdown();
+    }
+
+    @Test
+    void testNotifyVersionGap() {
+        AtomicReference<Subscriber> subscriber = new AtomicReference<>();
+        Broadcaster broadcaster = new Broadcaster() {
+
+            @Override
+            public void subscribe(@Nonnull String path, @Nonnull Subscriber s) {
+                subscriber.set(s);
+            }
+
+            @Override
+            public void broadcast(String path, String content) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        AtomicInteger count = new AtomicInteger();
+        ZkNotifyLoadingCache<String, String> cache = ZkNotifyLoadingCache.<String, String> newBuilder()
+                .withCacheFactory(key -> key + "_" + count.getAndIncrement())
+                .withNotifyZkPath("/loadingGapTest")
+                .withBroadcaster(broadcaster)
+                .build();
+        assertEquals("k1_0", cache.get("k1"));
+        assertEquals("k2_1", cache.get("k2"));
+        subscriber.get().onChanged(NotifyPayload.encode(System.currentTimeMillis(), "k1"), 1);
+        assertNull(cache.getIfPresent("k1"));
+        assertEquals("k2_1", cache.getIfPresent("k2"));
+        assertEquals("k1_2", cache.get("k1"));
+        // version 2 for some other key was conflated away
+        subscriber.get().onChanged(NotifyPayload.encode(System.currentTimeMillis(), "k1"), 3);
+        assertEquals(0, cache.size());
+        cache.close();
+    }
+
+    @Test
+    void testLoadFailed() {
+        ZkNotifyLoadingCache<String, String> cache = ZkNotifyLoadingCache.<String, String> newBuilder()
+                .withCacheFactory(key -> {
+                    throw new IOException(key);
+                })
+                .build();
+        CacheBuildFailedException e = assertThrows(CacheBuildFailedException.class, () -> cache.get("a"));
+        assertEquals(IOException.class, e.getCause().getClass());
+        assertEquals(0, cache.size());
+    }
+}
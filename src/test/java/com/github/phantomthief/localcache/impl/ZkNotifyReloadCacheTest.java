@@ -1,13 +1,19 @@
 package com.github.phantomthief.localcache.impl;
 
 import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.Duration.ofSeconds;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
@@ -17,14 +23,29 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.LongSupplier;
 
+import javax.annotation.Nonnull;
+
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.retry.ExponentialBackoffRetry;
@@ -40,7 +61,13 @@ import org.slf4j.LoggerFactory;
 
 import com.github.phantomthief.localcache.CacheFactory;
 import com.github.phantomthief.localcache.CacheFactoryEx;
+import com.github.phantomthief.localcache.CacheStats;
+import com.github.phantomthief.localcache.HistogramMetricsListener;
 import com.github.phantomthief.localcache.ReloadableCache;
+import com.github.phantomthief.localcache.SnapshotCodec;
+import com.github.phantomthief.zookeeper.broadcast.Broadcaster;
+import com.github.phantomthief.zookeeper.broadcast.Broadcaster.Subscriber;
+import com.github.phantomthief.zookeeper.broadcast.DispatchStats;
 import com.github.phantomthief.zookeeper.broadcast.ZkBroadcaster;
 import com.google.common.util.concurrent.Uninterruptibles;
 
@@ -111,6 +138,29 @@ class ZkNotifyReloadCacheTest {
         assertEquals(cache.get(), "2");
     }
 
+    @Test
+    void testSharedScheduler() {
+        int threadsBefore = Thread.activeCount();
+        AtomicInteger count = new AtomicInteger();
+        List<ZkNotifyReloadCache<String>> caches = new ArrayList<>();
+        try {
+            for (int i = 0; i < 200; i++) {
+                ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                        .withCacheFactory(() -> build(count))
+                        .enableAutoReload(100, MILLISECONDS)
+                        .build();
+                caches.add(cache);
+                cache.get();
+            }
+            sleepUninterruptibly(500, MILLISECONDS);
+            assertTrue(count.get() > caches.size());
+            assertTrue(Thread.activeCount() - threadsBefore < caches.size());
+        } finally {
+            // the scheduler is shared, reloads left scheduled would keep running in later tests
+            caches.forEach(ZkNotifyReloadCache::close);
+        }
+    }
+
     @Disabled
     @Test
     void testDynamicScheduled() {
@@ -145,6 +195,480 @@ class ZkNotifyReloadCacheTest {
         assertEquals("myContent", received.get());
     }
 
+    @Test
+    void testNotifyOrdered() {
+        ExecutorService dispatchExecutor = Executors.newFixedThreadPool(4);
+        ZkBroadcaster zkBroadcaster = ZkBroadcaster.newBuilder()
+                .withCuratorFactory(() -> curatorFramework)
+                .withDispatchExecutor(dispatchExecutor)
+                .build();
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        zkBroadcaster.subscribe("/orderTest", content -> {
+            sleepUninterruptibly(100, MILLISECONDS);
+            received.add(Integer.parseInt(content));
+        });
+        for (int i = 0; i < 10; i++) {
+            zkBroadcaster.broadcast("/orderTest", String.valueOf(i));
+            sleepUninterruptibly(20, MILLISECONDS);
+        }
+        sleepUninterruptibly(2, SECONDS);
+        assertEquals(9, (int) received.get(received.size() - 1));
+        for (int i = 1; i < received.size(); i++) {
+            assertTrue(received.get(i - 1) < received.get(i));
+        }
+        DispatchStats stats = zkBroadcaster.getDispatchStats();
+        assertEquals(received.size(), stats.getDispatched());
+        assertTrue(stats.getMaxLag().compareTo(stats.getAverageLag()) >= 0);
+        dispatchExecutor.shutdown();
+    }
+
+    @Test
+    void testMetricsListener() {
+        AtomicInteger count = new AtomicInteger();
+        HistogramMetricsListener metrics = new HistogramMetricsListener();
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> build(count))
+                .withNotifyZkPath("/metricsTest")
+                .withCuratorFactory(() -> curatorFramework)
+                .withMaxRandomSleepOnNotifyReload(200, MILLISECONDS)
+                .withMetricsListener(metrics)
+                .build();
+        assertEquals("0", cache.get());
+        assertEquals(1, metrics.getFactoryDuration().getCount());
+        assertEquals(0, metrics.getBroadcastToPublish().getCount());
+
+        cache.reload();
+        sleepUninterruptibly(1, SECONDS);
+        assertEquals("1", cache.get());
+        assertEquals(1, metrics.getBroadcastToReceive().getCount());
+        assertEquals(1, metrics.getRandomSleep().getCount());
+        assertTrue(metrics.getRandomSleep().getMax() < 200);
+        assertEquals(2, metrics.getFactoryDuration().getCount());
+        assertEquals(1, metrics.getBroadcastToPublish().getCount());
+        assertTrue(metrics.getBroadcastToPublish().getMax() >= metrics.getRandomSleep().getMax());
+        assertEquals(0, metrics.getRebuildFailures());
+        cache.close();
+    }
+
+    @Test
+    void testStats() {
+        AtomicInteger count = new AtomicInteger();
+        AtomicBoolean fail = new AtomicBoolean();
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> {
+                    if (fail.get()) {
+                        throw new IOException("test");
+                    }
+                    return build(count);
+                })
+                .build();
+        CacheStats stats = cache.stats();
+        assertEquals(0, stats.getRebuildCount());
+        assertEquals(0, stats.getCurrentVersion());
+        assertNull(stats.getStaleness());
+
+        cache.get();
+        cache.reloadLocal();
+        stats = cache.stats();
+        assertEquals(2, stats.getRebuildCount());
+        assertEquals(0, stats.getFailureCount());
+        assertTrue(stats.getLastSuccessTime() > 0);
+        assertTrue(stats.getCurrentVersion() > 0);
+        assertTrue(stats.getMaxFactoryDuration().compareTo(stats.getAverageFactoryDuration()) >= 0);
+
+        fail.set(true);
+        long version = stats.getCurrentVersion();
+        cache.reloadLocal();
+        stats = cache.stats();
+        assertEquals(3, stats.getRebuildCount());
+        assertEquals(1, stats.getFailureCount());
+        assertEquals("test", stats.getLastFailureCause().getMessage());
+        assertEquals(version, stats.getCurrentVersion());
+        assertNotNull(stats.getStaleness());
+        assertEquals("1", cache.get());
+    }
+
+    @Test
+    void testDeltaCacheFactory() {
+        List<List<String>> calls = new CopyOnWriteArrayList<>();
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withDeltaCacheFactory((prev, changes) -> {
+                    calls.add(changes);
+                    return prev == null || changes.isEmpty() ? "full" : prev + "," + String.join(",", changes);
+                })
+                .withNotifyZkPath("/deltaTest")
+                .withCuratorFactory(() -> curatorFramework)
+                .build();
+        assertEquals("full", cache.get());
+        assertEquals(singletonList(emptyList()), calls);
+
+        cache.reload("a");
+        sleepUninterruptibly(1, SECONDS);
+        assertEquals("full,a", cache.get());
+        cache.reload("b");
+        sleepUninterruptibly(1, SECONDS);
+        assertEquals("full,a,b", cache.get());
+        assertEquals(singletonList("b"), calls.get(calls.size() - 1));
+
+        cache.reloadLocal();
+        assertEquals("full", cache.get());
+        cache.reload();
+        sleepUninterruptibly(1, SECONDS);
+        assertEquals(emptyList(), calls.get(calls.size() - 1));
+        cache.close();
+    }
+
+    @Test
+    void testDeltaVersionGap() {
+        AtomicReference<Subscriber> subscriber = new AtomicReference<>();
+        Broadcaster broadcaster = new Broadcaster() {
+
+            @Override
+            public void subscribe(@Nonnull String path, @Nonnull Subscriber s) {
+                subscriber.set(s);
+            }
+
+            @Override
+            public void broadcast(String path, String content) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        List<List<String>> calls = new CopyOnWriteArrayList<>();
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withDeltaCacheFactory((prev, changes) -> {
+                    calls.add(changes);
+                    return prev == null || changes.isEmpty() ? "full" : prev + "," + String.join(",", changes);
+                })
+                .withNotifyZkPath("/deltaGapTest")
+                .withBroadcaster(broadcaster)
+                .build();
+        assertEquals("full", cache.get());
+        subscriber.get().onChanged(NotifyPayload.encode(System.currentTimeMillis(), "a"), 1);
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("full,a", cache.get());
+        subscriber.get().onChanged(NotifyPayload.encode(System.currentTimeMillis(), "b"), 2);
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("full,a,b", cache.get());
+        // version 3 was conflated away, its change is lost
+        subscriber.get().onChanged(NotifyPayload.encode(System.currentTimeMillis(), "d"), 4);
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("full", cache.get());
+        assertEquals(emptyList(), calls.get(calls.size() - 1));
+        subscriber.get().onChanged(NotifyPayload.encode(System.currentTimeMillis(), "e"), 5);
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("full,e", cache.get());
+        cache.close();
+    }
+
+    @Test
+    void testVersionedNotifyRecreated() {
+        AtomicReference<Subscriber> subscriber = new AtomicReference<>();
+        Broadcaster broadcaster = new Broadcaster() {
+
+            @Override
+            public void subscribe(@Nonnull String path, @Nonnull Subscriber s) {
+                subscriber.set(s);
+            }
+
+            @Override
+            public void broadcast(String path, String content) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        List<List<String>> calls = new CopyOnWriteArrayList<>();
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withDeltaCacheFactory((prev, changes) -> {
+                    calls.add(changes);
+                    return prev == null || changes.isEmpty() ? "full" : prev + "," + String.join(",", changes);
+                })
+                .withNotifyZkPath("/versionedRecreateTest")
+                .withBroadcaster(broadcaster)
+                .withVersionedNotify()
+                .build();
+        assertEquals("full", cache.get());
+        String first = NotifyPayload.encode(1L, "a");
+        subscriber.get().onChanged(first, 1);
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("full,a", cache.get());
+        // the same write read again, e.g. after a reconnect
+        subscriber.get().onChanged(first, 1);
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals(2, calls.size());
+        // recreated and written up to the same version, not a duplicate
+        subscriber.get().onChanged(NotifyPayload.encode(2L, "b"), 1);
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("full", cache.get());
+        subscriber.get().onChanged(NotifyPayload.encode(3L, "c"), 2);
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("full,c", cache.get());
+        // recreated with a smaller version
+        subscriber.get().onChanged(NotifyPayload.encode(4L, "d"), 0);
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("full", cache.get());
+        // counting on from the recreated node is continuous
+        subscriber.get().onChanged(NotifyPayload.encode(5L, "e"), 1);
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("full,e", cache.get());
+        cache.close();
+    }
+
+    @Test
+    void testNotifyDebounce() {
+        AtomicInteger count = new AtomicInteger();
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> build(count))
+                .withNotifyZkPath("/debounceTest")
+                .withCuratorFactory(() -> curatorFramework)
+                .withNotifyDebounce(Duration.ofMillis(500), Duration.ofSeconds(5))
+                .build();
+        assertEquals("0", cache.get());
+        for (int i = 0; i < 5; i++) {
+            cache.reload();
+            sleepUninterruptibly(100, MILLISECONDS);
+        }
+        assertEquals("0", cache.get());
+        sleepUninterruptibly(1, SECONDS);
+        assertEquals("1", cache.get());
+        assertEquals(2, count.get());
+
+        cache.reload();
+        sleepUninterruptibly(1, SECONDS);
+        assertEquals("2", cache.get());
+        cache.close();
+    }
+
+    @Test
+    void testReloadAsync() {
+        AtomicInteger count = new AtomicInteger();
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> build(count))
+                .withNotifyZkPath("/reloadAsyncTest")
+                .withCuratorFactory(() -> curatorFramework)
+                .build();
+        assertEquals("0", cache.get());
+        cache.reloadAsync().join();
+        sleepUninterruptibly(1, SECONDS);
+        assertEquals("1", cache.get());
+        cache.close();
+    }
+
+    @Test
+    void testReloadLocalInsideFactory() {
+        AtomicInteger count = new AtomicInteger();
+        AtomicReference<ReloadableCache<String>> self = new AtomicReference<>();
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> {
+                    String value = build(count);
+                    if ("1".equals(value)) {
+                        self.get().reloadLocal();
+                    }
+                    return value;
+                })
+                .withNotifyZkPath("/reloadLocalInsideFactoryTest")
+                .withCuratorFactory(() -> curatorFramework)
+                .build();
+        self.set(cache);
+        assertEquals("0", cache.get());
+        assertTimeoutPreemptively(ofSeconds(5), cache::reloadLocal);
+        sleepUninterruptibly(1, SECONDS);
+        assertEquals("2", cache.get());
+        cache.close();
+    }
+
+    @Test
+    void testVersionedNotify() {
+        ZkBroadcaster broadcaster = new ZkBroadcaster(() -> curatorFramework);
+        AtomicInteger count = new AtomicInteger();
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> build(count))
+                .withNotifyZkPath("/versionedTest")
+                .withBroadcaster(broadcaster)
+                .withVersionedNotify()
+                .build();
+        assertEquals("0", cache.get());
+        // the same content twice, e.g. two reloads in the same millisecond
+        String content = String.valueOf(System.currentTimeMillis());
+        broadcaster.broadcast("/versionedTest", content);
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("1", cache.get());
+        broadcaster.broadcast("/versionedTest", content);
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("2", cache.get());
+        cache.close();
+    }
+
+    @Test
+    void testSnapshot() throws IOException {
+        Path file = Files.createTempDirectory("snapshotTest").resolve("cache.snapshot");
+        SnapshotCodec<String> codec = new SnapshotCodec<String>() {
+
+            @Override
+            public void encode(String value, OutputStream out) throws IOException {
+                out.write(value.getBytes(UTF_8));
+            }
+
+            @Override
+            public String decode(ByteBuffer buffer) {
+                return UTF_8.decode(buffer).toString();
+            }
+        };
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> "v1")
+                .withSnapshot(file, codec)
+                .build();
+        assertEquals("v1", cache.get());
+        assertFalse(cache.isServingBootstrap());
+        // snapshots are written in the background
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertTrue(Files.exists(file));
+        cache.close();
+
+        // restarted, serves the snapshot while the factory is still running
+        CountDownLatch latch = new CountDownLatch(1);
+        ZkNotifyReloadCache<String> restarted = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> {
+                    latch.await();
+                    return "v2";
+                })
+                .withSnapshot(file, codec)
+                .build();
+        assertEquals("v1", restarted.get());
+        assertTrue(restarted.isServingBootstrap());
+        latch.countDown();
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("v2", restarted.get());
+        assertFalse(restarted.isServingBootstrap());
+        restarted.close();
+        ZkNotifyReloadCache<String> reloaded = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> {
+                    throw new IllegalStateException();
+                })
+                .withSnapshot(file, codec)
+                .build();
+        assertEquals("v2", reloaded.get());
+        reloaded.close();
+
+        // a corrupted snapshot is ignored
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1]++;
+        Files.write(file, bytes);
+        ZkNotifyReloadCache<String> corrupted = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> "v3")
+                .withSnapshot(file, codec)
+                .build();
+        assertEquals("v3", corrupted.get());
+        assertFalse(corrupted.isServingBootstrap());
+        corrupted.close();
+    }
+
+    @Test
+    void testSnapshotCleanup() throws IOException {
+        Path file = Files.createTempDirectory("snapshotTest").resolve("cache.snapshot");
+        CountDownLatch encoding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SnapshotCodec<String> codec = new SnapshotCodec<String>() {
+
+            @Override
+            public void encode(String value, OutputStream out) throws Throwable {
+                encoding.countDown();
+                release.await();
+                out.write(value.getBytes(UTF_8));
+            }
+
+            @Override
+            public String decode(ByteBuffer buffer) {
+                return UTF_8.decode(buffer).toString();
+            }
+        };
+        AtomicInteger counter = new AtomicInteger();
+        List<String> cleaned = new CopyOnWriteArrayList<>();
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> String.valueOf(counter.incrementAndGet()))
+                .withOldCleanup(cleaned::add)
+                .withSnapshot(file, codec)
+                .build();
+        assertEquals("1", cache.get());
+        assertTimeoutPreemptively(ofSeconds(5), () -> encoding.await());
+        // replaced while its snapshot is being written, cleaned up only after the write
+        cache.reloadLocal();
+        assertEquals("2", cache.get());
+        assertTrue(cleaned.isEmpty());
+        release.countDown();
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals(singletonList("1"), cleaned);
+        cache.close();
+    }
+
+    @Test
+    void testBootstrap() {
+        CountDownLatch latch = new CountDownLatch(1);
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> {
+                    latch.await();
+                    return "real";
+                })
+                .bootstrapObject("bootstrap")
+                .build();
+        assertEquals("bootstrap", cache.get());
+        assertTrue(cache.isServingBootstrap());
+        latch.countDown();
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("real", cache.get());
+        assertFalse(cache.isServingBootstrap());
+        cache.close();
+
+        // a failing bootstrap factory falls back to building synchronously
+        ZkNotifyReloadCache<String> failed = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> "real")
+                .bootstrapFactory(() -> {
+                    throw new IOException("no bundled data");
+                })
+                .build();
+        assertEquals("real", failed.get());
+        assertFalse(failed.isServingBootstrap());
+        failed.close();
+    }
+
+    @Test
+    void testNotifySubtree() {
+        ZkBroadcaster zkBroadcaster = ZkBroadcaster.newBuilder()
+                .withCuratorFactory(() -> curatorFramework)
+                .withZkPrefix("/subtreeTest")
+                .watchSubtree()
+                .build();
+        zkBroadcaster.broadcast("/exists", "initial");
+        AtomicReference<String> received1 = new AtomicReference<>();
+        AtomicReference<String> received2 = new AtomicReference<>();
+        zkBroadcaster.subscribe("/exists", received1::set);
+        zkBroadcaster.subscribe("/a/b", received2::set);
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertNull(received1.get());
+        assertNull(received2.get());
+
+        zkBroadcaster.broadcast("/exists", "content1");
+        zkBroadcaster.broadcast("/a/b", "content2");
+        sleepUninterruptibly(1, SECONDS);
+        assertEquals("content1", received1.get());
+        assertEquals("content2", received2.get());
+
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> "test")
+                .withNotifyZkPath("/cache")
+                .withBroadcaster(zkBroadcaster)
+                .build();
+        AtomicInteger count = new AtomicInteger();
+        ZkNotifyReloadCache<String> cache2 = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> build(count))
+                .withNotifyZkPath("/cache")
+                .withBroadcaster(zkBroadcaster)
+                .build();
+        assertEquals("test", cache.get());
+        assertEquals("0", cache2.get());
+        cache.reload();
+        sleepUninterruptibly(1, SECONDS);
+        assertEquals("1", cache2.get());
+    }
+
     @Test
     void testRandomSleep() {
         AtomicInteger count = new AtomicInteger();
@@ -407,6 +931,185 @@ class ZkNotifyReloadCacheTest {
         assertEquals("test", cache.get());
     }
 
+    @Test
+    void testReloadLocalNotBlockReader() throws InterruptedException {
+        AtomicInteger count = new AtomicInteger();
+        CountDownLatch building = new CountDownLatch(1);
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> {
+                    if (count.get() > 0) {
+                        building.countDown();
+                        sleepUninterruptibly(1, SECONDS);
+                    }
+                    return build(count);
+                })
+                .build();
+        assertEquals("0", cache.get());
+        Thread reloader = new Thread(cache::reloadLocal);
+        reloader.start();
+        building.await();
+        long start = System.nanoTime();
+        assertEquals("0", cache.get());
+        assertTrue(System.nanoTime() - start < MILLISECONDS.toNanos(500));
+        reloader.join();
+        assertEquals("1", cache.get());
+    }
+
+    @Test
+    void testCoalesceReload() {
+        AtomicInteger count = new AtomicInteger();
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> {
+                    sleepUninterruptibly(200, MILLISECONDS);
+                    return build(count);
+                })
+                .build();
+        assertEquals("0", cache.get());
+        CompletableFuture<String> first = cache.reloadLocalAsync();
+        List<CompletableFuture<String>> followUps = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            followUps.add(cache.reloadLocalAsync());
+        }
+        assertEquals("1", first.join());
+        followUps.forEach(it -> assertEquals("2", it.join()));
+        assertEquals(3, count.get());
+        cache.reloadLocal();
+        assertEquals("3", cache.get());
+    }
+
+    @Test
+    void testAsyncCacheFactory() {
+        AtomicInteger count = new AtomicInteger();
+        boolean[] exception = { false };
+        List<String> cleaned = new ArrayList<>();
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withAsyncCacheFactory(prev -> CompletableFuture.supplyAsync(() -> {
+                    sleepUninterruptibly(50, MILLISECONDS);
+                    if (exception[0]) {
+                        throw new IllegalStateException("my test");
+                    }
+                    return build(count);
+                }))
+                .withOldCleanup(cleaned::add)
+                .build();
+        assertEquals("0", cache.get());
+        assertEquals("1", cache.reloadLocalAsync().join());
+        assertEquals("1", cache.get());
+        assertEquals(singletonList("0"), cleaned);
+
+        exception[0] = true;
+        CompletionException e = assertThrows(CompletionException.class, () -> cache.reloadLocalAsync().join());
+        assertSame(IllegalStateException.class, e.getCause().getClass());
+        cache.reloadLocal();
+        assertEquals("1", cache.get());
+    }
+
+    @Test
+    void testAsyncFactoryTimeout() {
+        AtomicInteger count = new AtomicInteger();
+        List<CompletableFuture<String>> hanging = new CopyOnWriteArrayList<>();
+        List<String> cleaned = new CopyOnWriteArrayList<>();
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withAsyncCacheFactory(prev -> {
+                    if (prev == null) {
+                        return CompletableFuture.completedFuture(build(count));
+                    }
+                    CompletableFuture<String> future = new CompletableFuture<>();
+                    hanging.add(future);
+                    return future;
+                })
+                .withAsyncFactoryTimeout(Duration.ofMillis(200))
+                .withOldCleanup(cleaned::add)
+                .build();
+        assertEquals("0", cache.get());
+        CompletionException e = assertThrows(CompletionException.class, () -> cache.reloadLocalAsync().join());
+        assertSame(TimeoutException.class, e.getCause().getClass());
+        // 超时释放了 rebuild 的名额，之后的 rebuild 照常执行
+        CompletableFuture<String> next = cache.reloadLocalAsync();
+        sleepUninterruptibly(50, MILLISECONDS);
+        assertEquals(2, hanging.size());
+        hanging.get(1).complete("1");
+        assertEquals("1", next.join());
+        assertEquals("1", cache.get());
+        // 超时之后才完成的结果不会发布
+        hanging.get(0).complete("late");
+        assertEquals("1", cache.get());
+        assertTrue(cleaned.contains("late"));
+        cache.close();
+    }
+
+    @Test
+    void testGetAsync() {
+        AtomicInteger count = new AtomicInteger();
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> {
+                    sleepUninterruptibly(300, MILLISECONDS);
+                    return build(count);
+                })
+                .build();
+        assertNull(cache.getIfPresent());
+        CompletableFuture<String> future = cache.getAsync();
+        assertSame(future, cache.getAsync());
+        assertFalse(future.isDone());
+        assertEquals("0", future.join());
+        assertEquals("0", cache.getIfPresent());
+        assertTrue(cache.getAsync().isDone());
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    void testGetAsyncExecutor() {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "asyncInitTest"));
+        AtomicReference<String> buildThread = new AtomicReference<>();
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> {
+                    buildThread.set(Thread.currentThread().getName());
+                    return "0";
+                })
+                .withAsyncInitExecutor(executor)
+                .build();
+        assertEquals("0", cache.getAsync().join());
+        assertEquals("asyncInitTest", buildThread.get());
+        executor.shutdown();
+    }
+
+    @Test
+    void testGetAsyncFailed() {
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> {
+                    throw new IOException();
+                })
+                .build();
+        CompletionException e = assertThrows(CompletionException.class, () -> cache.getAsync().join());
+        assertSame(CacheBuildFailedException.class, e.getCause().getClass());
+        assertNull(cache.getIfPresent());
+    }
+
+    @Test
+    void testClose() {
+        AtomicInteger count = new AtomicInteger();
+        AtomicReference<String> cleaned = new AtomicReference<>();
+        ZkNotifyReloadCache<String> cache = ZkNotifyReloadCache.<String> newBuilder()
+                .withCacheFactory(() -> build(count))
+                .withNotifyZkPath("/closeTest")
+                .withCuratorFactory(() -> curatorFramework)
+                .withOldCleanup(cleaned::set)
+                .enableAutoReload(100, MILLISECONDS)
+                .build();
+        assertEquals("0", cache.get());
+        cache.close();
+        assertEquals("0", cleaned.get());
+        assertNull(cache.getIfPresent());
+        assertThrows(IllegalStateException.class, cache::get);
+
+        int built = count.get();
+        new ZkBroadcaster(() -> curatorFramework).broadcast("/closeTest", String.valueOf(System.currentTimeMillis()));
+        cache.reloadLocal();
+        sleepUninterruptibly(1, SECONDS);
+        assertEquals(built, count.get());
+        cache.close();
+    }
+
     @Test
     void testStaticGet() {
         assertEquals("test_static", STATIC_CACHE.get());
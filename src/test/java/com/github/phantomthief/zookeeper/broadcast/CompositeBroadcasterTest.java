@@ -0,0 +1,82 @@
+package com.github.phantomthief.zookeeper.broadcast;
+
+import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.phantomthief.zookeeper.broadcast.Broadcaster.Subscriber;
+
+/**
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+class CompositeBroadcasterTest {
+
+    @Test
+    void testDedupe() {
+        LocalBroadcaster fast = new LocalBroadcaster();
+        LocalBroadcaster durable = new LocalBroadcaster();
+        CompositeBroadcaster broadcaster = new CompositeBroadcaster(fast, durable);
+        List<String> received = new CopyOnWriteArrayList<>();
+        Subscriber subscriber = received::add;
+        broadcaster.subscribe("/composite", subscriber);
+
+        broadcaster.broadcast("/composite", "1");
+        sleepUninterruptibly(100, MILLISECONDS);
+        // written by another process on one channel only
+        durable.broadcast("/composite", "2");
+        sleepUninterruptibly(100, MILLISECONDS);
+        fast.broadcast("/composite", "1");
+        sleepUninterruptibly(100, MILLISECONDS);
+        assertEquals(2, received.size());
+        assertEquals("1", received.get(0));
+        assertEquals("2", received.get(1));
+
+        assertTrue(broadcaster.unsubscribe("/composite", subscriber));
+        assertFalse(broadcaster.unsubscribe("/composite", subscriber));
+        broadcaster.broadcast("/composite", "3");
+        sleepUninterruptibly(100, MILLISECONDS);
+        assertEquals(2, received.size());
+        broadcaster.close();
+    }
+
+    @Test
+    void testPartialFailure() {
+        LocalBroadcaster fast = new LocalBroadcaster();
+        LocalBroadcaster closed = new LocalBroadcaster();
+        closed.close();
+        CompositeBroadcaster broadcaster = new CompositeBroadcaster(fast, closed);
+        List<String> received = new CopyOnWriteArrayList<>();
+        fast.subscribe("/partial", received::add);
+        assertThrows(IllegalStateException.class, () -> broadcaster.broadcast("/partial", "1"));
+        sleepUninterruptibly(100, MILLISECONDS);
+        assertEquals("1", received.get(0));
+        broadcaster.close();
+    }
+
+    @Test
+    void testSubscribeRollback() {
+        LocalBroadcaster fast = new LocalBroadcaster();
+        LocalBroadcaster closed = new LocalBroadcaster();
+        closed.close();
+        CompositeBroadcaster broadcaster = new CompositeBroadcaster(fast, closed);
+        List<String> received = new CopyOnWriteArrayList<>();
+        Subscriber subscriber = received::add;
+        assertThrows(IllegalStateException.class, () -> broadcaster.subscribe("/rollback", subscriber));
+
+        // the channel subscribed before the failure no longer delivers
+        fast.broadcast("/rollback", "1");
+        sleepUninterruptibly(100, MILLISECONDS);
+        assertTrue(received.isEmpty());
+        assertFalse(broadcaster.unsubscribe("/rollback", subscriber));
+        broadcaster.close();
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.phantomthief.zookeeper.broadcast;
+
+import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+class FileWatchBroadcasterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testBroadcast() throws IOException {
+        FileWatchBroadcaster broadcaster1 = new FileWatchBroadcaster(directory);
+        FileWatchBroadcaster broadcaster2 = new FileWatchBroadcaster(directory);
+        AtomicReference<String> received = new AtomicReference<>();
+        broadcaster2.subscribe("/a/b", received::set);
+
+        broadcaster1.broadcast("/a/b", "1");
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("1", received.get());
+        assertEquals("1", new String(Files.readAllBytes(directory.resolve("a%2Fb")), UTF_8));
+
+        // written by others
+        Files.write(directory.resolve("a%2Fb"), "2".getBytes(UTF_8));
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("2", received.get());
+
+        Files.delete(directory.resolve("a%2Fb"));
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("", received.get());
+
+        // a path and its child are different files
+        AtomicReference<String> parentReceived = new AtomicReference<>();
+        broadcaster2.subscribe("/a", parentReceived::set);
+        broadcaster1.broadcast("/a", "3");
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("3", parentReceived.get());
+        assertEquals("", received.get());
+        broadcaster1.broadcast("/a/b", "4");
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("4", received.get());
+        assertEquals("3", parentReceived.get());
+
+        assertThrows(IllegalArgumentException.class, () -> broadcaster1.broadcast("/../escape", "1"));
+        broadcaster1.close();
+        broadcaster2.close();
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.phantomthief.zookeeper.broadcast;
+
+import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.phantomthief.localcache.impl.ZkNotifyReloadCache;
+import com.github.phantomthief.zookeeper.broadcast.Broadcaster.Subscriber;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+class LocalBroadcasterTest {
+
+    @Test
+    void testBroadcast() {
+        LocalBroadcaster broadcaster = new LocalBroadcaster();
+        AtomicReference<String> received = new AtomicReference<>();
+        AtomicLong version = new AtomicLong();
+        Subscriber subscriber = new Subscriber() {
+
+            @Override
+            public void onChanged(String content) {
+                throw new AssertionError();
+            }
+
+            @Override
+            public void onChanged(String content, long v) {
+                received.set(content);
+                version.set(v);
+            }
+        };
+        broadcaster.subscribe("/local", subscriber);
+        broadcaster.broadcast("/local", "1");
+        sleepUninterruptibly(100, MILLISECONDS);
+        assertEquals("1", received.get());
+        long first = version.get();
+        broadcaster.broadcast("/other", "2");
+        broadcaster.broadcast("/local", "3");
+        sleepUninterruptibly(100, MILLISECONDS);
+        assertEquals("3", received.get());
+        assertTrue(version.get() > first);
+
+        assertTrue(broadcaster.unsubscribe("/local", subscriber));
+        assertFalse(broadcaster.unsubscribe("/local", subscriber));
+        broadcaster.broadcast("/local", "4");
+        sleepUninterruptibly(100, MILLISECONDS);
+        assertEquals("3", received.get());
+        broadcaster.close();
+    }
+
+    @Test
+    void testQueuedDispatch() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch blocked = new CountDownLatch(1);
+        executor.execute(() -> Uninterruptibles.awaitUninterruptibly(blocked));
+        LocalBroadcaster broadcaster = new LocalBroadcaster(executor);
+        List<String> received = new CopyOnWriteArrayList<>();
+        broadcaster.subscribe("/queued", received::add);
+        for (int i = 0; i < 1030; i++) {
+            broadcaster.broadcast("/queued", String.valueOf(i));
+        }
+        blocked.countDown();
+        sleepUninterruptibly(200, MILLISECONDS);
+        // the oldest ones are dropped when the queue is full, the others are all delivered in order
+        assertEquals(1024, received.size());
+        assertEquals("6", received.get(0));
+        assertEquals("1029", received.get(1023));
+        assertEquals(6, broadcaster.getDispatchStats().getConflated());
+        broadcaster.close();
+        executor.shutdown();
+    }
+
+    @Test
+    void testReloadCache() {
+        LocalBroadcaster broadcaster = new LocalBroadcaster();
+        AtomicInteger count = new AtomicInteger();
+        ZkNotifyReloadCache<Integer> cache1 = ZkNotifyReloadCache.<Integer> newBuilder()
+                .withCacheFactory(count::getAndIncrement)
+                .withNotifyZkPath("/localCache")
+                .withBroadcaster(broadcaster)
+                .withVersionedNotify()
+                .build();
+        ZkNotifyReloadCache<Integer> cache2 = ZkNotifyReloadCache.<Integer> newBuilder()
+                .withCacheFactory(count::getAndIncrement)
+                .withNotifyZkPath("/localCache")
+                .withBroadcaster(broadcaster)
+                .build();
+        assertEquals(0, (int) cache1.get());
+        assertEquals(1, (int) cache2.get());
+        cache1.reload();
+        sleepUninterruptibly(200, MILLISECONDS);
+        assertTrue(cache1.get() > 1);
+        assertTrue(cache2.get() > 1);
+        cache1.close();
+        cache2.close();
+        broadcaster.close();
+    }
+}
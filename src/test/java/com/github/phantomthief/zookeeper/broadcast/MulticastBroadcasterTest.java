@@ -0,0 +1,41 @@
+package com.github.phantomthief.zookeeper.broadcast;
+
+import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.net.InetAddress;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+class MulticastBroadcasterTest {
+
+    @Test
+    void testBroadcast() throws Exception {
+        InetAddress group = InetAddress.getByName("239.255.27.2");
+        MulticastBroadcaster broadcaster1 = MulticastBroadcaster.newBuilder()
+                .withGroup(group, 24528)
+                .build();
+        MulticastBroadcaster broadcaster2 = MulticastBroadcaster.newBuilder()
+                .withGroup(group, 24528)
+                .build();
+        AtomicReference<String> received = new AtomicReference<>();
+        AtomicReference<String> other = new AtomicReference<>();
+        broadcaster2.subscribe("/multicast", received::set);
+        broadcaster2.subscribe("/other", other::set);
+
+        broadcaster1.broadcast("/multicast", "1");
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("1", received.get());
+        assertNull(other.get());
+
+        broadcaster1.close();
+        broadcaster2.close();
+    }
+}
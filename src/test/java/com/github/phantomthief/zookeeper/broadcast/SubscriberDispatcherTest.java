@@ -0,0 +1,63 @@
+package com.github.phantomthief.zookeeper.broadcast;
+
+import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+class SubscriberDispatcherTest {
+
+    @Test
+    void testConcurrentOfferKeepsLatest() throws Exception {
+        int threads = 8;
+        ExecutorService dispatchExecutor = Executors.newFixedThreadPool(4);
+        ExecutorService offerExecutor = Executors.newFixedThreadPool(threads);
+        try {
+            AtomicReference<String> received = new AtomicReference<>();
+            SubscriberDispatcher dispatcher = new SubscriberDispatcher("/stress", received::set, dispatchExecutor,
+                    new DispatchStats.Recorder(), 1);
+            for (int round = 0; round < 500; round++) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int thread = t;
+                    int currentRound = round;
+                    futures.add(offerExecutor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < 100; i++) {
+                            dispatcher.offer(currentRound + "-" + thread + "-" + i, i);
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                // offered while the drain may still be running, it must never be the one dropped
+                String last = "last-" + round;
+                dispatcher.offer(last, 0);
+                for (int i = 0; i < 100 && !last.equals(received.get()); i++) {
+                    sleepUninterruptibly(10, MILLISECONDS);
+                }
+                assertEquals(last, received.get());
+            }
+        } finally {
+            offerExecutor.shutdownNow();
+            dispatchExecutor.shutdownNow();
+        }
+    }
+}
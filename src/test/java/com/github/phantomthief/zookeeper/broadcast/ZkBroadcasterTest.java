@@ -0,0 +1,253 @@
+package com.github.phantomthief.zookeeper.broadcast;
+
+import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.test.TestingServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.github.phantomthief.zookeeper.broadcast.Broadcaster.Subscriber;
+
+/**
+ * @author w.vela
+ * Created on 2026-10-18.
+ */
+class ZkBroadcasterTest {
+
+    private static TestingServer testingServer;
+    private static CuratorFramework curatorFramework;
+
+    @BeforeAll
+    static void init() throws Exception {
+        testingServer = new TestingServer(true);
+        curatorFramework = CuratorFrameworkFactory.newClient(testingServer.getConnectString(),
+                new ExponentialBackoffRetry(10000, 20));
+        curatorFramework.start();
+    }
+
+    @AfterAll
+    static void destroy() throws IOException {
+        curatorFramework.close();
+        testingServer.close();
+    }
+
+    @Test
+    void testUnsubscribe() {
+        ZkBroadcaster broadcaster = new ZkBroadcaster(() -> curatorFramework);
+        AtomicReference<String> received = new AtomicReference<>();
+        Subscriber subscriber = received::set;
+        broadcaster.subscribe("/unsubscribeTest", subscriber);
+        broadcaster.broadcast("/unsubscribeTest", "1");
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("1", received.get());
+
+        assertTrue(broadcaster.unsubscribe("/unsubscribeTest", subscriber));
+        assertFalse(broadcaster.unsubscribe("/unsubscribeTest", subscriber));
+        received.set(null);
+        broadcaster.broadcast("/unsubscribeTest", "2");
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertNull(received.get());
+    }
+
+    @Test
+    void testBroadcastAll() {
+        ZkBroadcaster broadcaster = new ZkBroadcaster(() -> curatorFramework);
+        Map<String, String> received = new ConcurrentHashMap<>();
+        broadcaster.broadcast("/broadcastAll/a", "0");
+        broadcaster.subscribe("/broadcastAll/a", content -> received.put("a", content));
+        broadcaster.subscribe("/broadcastAll/b", content -> received.put("b", content));
+
+        Map<String, String> contents = new HashMap<>();
+        contents.put("/broadcastAll/a", "1");
+        contents.put("/broadcastAll/b", "2");
+        // b does not exist yet
+        broadcaster.broadcastAll(contents);
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("1", received.get("a"));
+        assertEquals("2", received.get("b"));
+
+        contents.put("/broadcastAll/a", "3");
+        contents.put("/broadcastAll/b", "4");
+        broadcaster.broadcastAll(contents);
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("3", received.get("a"));
+        assertEquals("4", received.get("b"));
+    }
+
+    @Test
+    void testBroadcastAsync() {
+        ZkBroadcaster broadcaster = new ZkBroadcaster(() -> curatorFramework);
+        Map<String, String> received = new ConcurrentHashMap<>();
+        broadcaster.subscribe("/broadcastAsync/a", content -> received.put("a", content));
+        broadcaster.subscribe("/broadcastAsync/b", content -> received.put("b", content));
+
+        // create on the first write, then update
+        broadcaster.broadcastAsync("/broadcastAsync/a", "1").join();
+        broadcaster.broadcastAsync("/broadcastAsync/a", "2").join();
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("2", received.get("a"));
+
+        Map<String, String> contents = new HashMap<>();
+        contents.put("/broadcastAsync/a", "3");
+        contents.put("/broadcastAsync/b", "4");
+        broadcaster.broadcastAllAsync(contents).join();
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("3", received.get("a"));
+        assertEquals("4", received.get("b"));
+
+        contents.put("/broadcastAsync/a", "5");
+        contents.put("/broadcastAsync/b", "6");
+        broadcaster.broadcastAllAsync(contents).join();
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("5", received.get("a"));
+        assertEquals("6", received.get("b"));
+    }
+
+    @Test
+    void testKnownPaths() throws Exception {
+        ZkBroadcaster broadcaster = new ZkBroadcaster(() -> curatorFramework);
+        AtomicReference<String> received = new AtomicReference<>();
+        broadcaster.subscribe("/knownPathTest", received::set);
+        // created at subscribe time, without a notification
+        assertNotNull(curatorFramework.checkExists().forPath("/broadcast/knownPathTest"));
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertNull(received.get());
+
+        broadcaster.broadcast("/knownPathTest", "1");
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals("1", received.get());
+
+        // deleted by others, the next broadcast creates it again
+        curatorFramework.delete().forPath("/broadcast/knownPathTest");
+        broadcaster.broadcast("/knownPathTest", "2");
+        assertEquals("2", new String(curatorFramework.getData().forPath("/broadcast/knownPathTest"), UTF_8));
+        broadcaster.broadcastAll(singletonMap("/knownPathTest", "3"));
+        assertEquals("3", new String(curatorFramework.getData().forPath("/broadcast/knownPathTest"), UTF_8));
+
+        // existing but unknown to a new broadcaster
+        ZkBroadcaster other = new ZkBroadcaster(() -> curatorFramework);
+        other.broadcast("/knownPathTest", "4");
+        assertEquals("4", new String(curatorFramework.getData().forPath("/broadcast/knownPathTest"), UTF_8));
+        other.broadcastAsync("/knownPathTest/async", "5").join();
+        assertEquals("5", new String(curatorFramework.getData().forPath("/broadcast/knownPathTest/async"), UTF_8));
+        curatorFramework.delete().forPath("/broadcast/knownPathTest/async");
+        other.broadcastAsync("/knownPathTest/async", "6").join();
+        assertEquals("6", new String(curatorFramework.getData().forPath("/broadcast/knownPathTest/async"), UTF_8));
+        // missing, created after the write failed
+        other.broadcast("/knownPathTest/sync", "7");
+        assertEquals("7", new String(curatorFramework.getData().forPath("/broadcast/knownPathTest/sync"), UTF_8));
+    }
+
+    @Test
+    void testJoin() throws Exception {
+        ZkBroadcaster broadcaster1 = new ZkBroadcaster(() -> curatorFramework);
+        ZkBroadcaster broadcaster2 = new ZkBroadcaster(() -> curatorFramework);
+        AtomicReference<String> received = new AtomicReference<>();
+        broadcaster1.subscribe("/joinTest", received::set);
+        Broadcaster.Membership membership1 = broadcaster1.join("/joinTest");
+        Broadcaster.Membership membership2 = broadcaster2.join("/joinTest");
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals(2, membership1.size());
+        assertEquals(2, membership2.size());
+        // members do not notify subscribers of the path
+        assertNull(received.get());
+
+        // every join counts, also through the same broadcaster
+        Broadcaster.Membership membership3 = broadcaster1.join("/joinTest");
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals(3, membership3.size());
+        assertEquals(3, membership1.size());
+        // members are kept outside the notify node
+        assertEquals(3, curatorFramework.getChildren().forPath("/broadcast__members/joinTest").size());
+        assertTrue(curatorFramework.getChildren().forPath("/broadcast/joinTest").isEmpty());
+        membership3.close();
+        membership3.close();
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals(2, membership1.size());
+
+        membership2.close();
+        membership2.close();
+        sleepUninterruptibly(500, MILLISECONDS);
+        assertEquals(1, membership1.size());
+        broadcaster1.close();
+        assertNotNull(curatorFramework.checkExists().forPath("/broadcast/joinTest"));
+        assertTrue(curatorFramework.getChildren().forPath("/broadcast__members/joinTest").isEmpty());
+    }
+
+    @Test
+    void testConcurrentSubscribeAndBroadcast() throws Exception {
+        ZkBroadcaster broadcaster = new ZkBroadcaster(() -> curatorFramework);
+        String path = "/stressTest";
+        int threads = 8;
+        int subscribersPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean subscribing = new AtomicBoolean(true);
+        List<AtomicReference<String>> kept = new CopyOnWriteArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < subscribersPerThread; i++) {
+                    AtomicReference<String> received = new AtomicReference<>();
+                    Subscriber subscriber = received::set;
+                    broadcaster.subscribe(path, subscriber);
+                    if (i % 2 == 0) {
+                        // churn while notifies are being dispatched
+                        assertTrue(broadcaster.unsubscribe(path, subscriber));
+                    } else {
+                        kept.add(received);
+                    }
+                }
+                return null;
+            }));
+        }
+        Future<?> broadcasting = executor.submit(() -> {
+            start.await();
+            int i = 0;
+            while (subscribing.get()) {
+                broadcaster.broadcast(path, "content" + i++);
+            }
+            return null;
+        });
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        subscribing.set(false);
+        broadcasting.get();
+        executor.shutdown();
+
+        broadcaster.broadcast(path, "final");
+        sleepUninterruptibly(2, SECONDS);
+        assertEquals(threads * subscribersPerThread / 2, kept.size());
+        kept.forEach(it -> assertEquals("final", it.get()));
+    }
+}